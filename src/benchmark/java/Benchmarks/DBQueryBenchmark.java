@@ -0,0 +1,91 @@
+package Benchmarks;
+
+import Utilities.DBConnectionPool;
+import Utilities.DBUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures DBUtility queries against an embedded H2 database in MySQL mode,
+ * seeded with a generated actor table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Ddb.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "-Ddb.user=sa",
+        "-Ddb.password="
+})
+public class DBQueryBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        DBConnectionPool.PooledConnection pooled = DBConnectionPool.borrow();
+        try (Statement statement = pooled.getConnection().createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS actor");
+            statement.execute("CREATE TABLE actor (actor_id INT PRIMARY KEY, first_name VARCHAR(45), last_name VARCHAR(45))");
+        } finally {
+            DBConnectionPool.release(pooled);
+        }
+
+        pooled = DBConnectionPool.borrow();
+        try (PreparedStatement insert = pooled.getConnection().prepareStatement("INSERT INTO actor VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "FIRST" + i);
+                insert.setString(3, "LAST" + (i % 100));
+                insert.addBatch();
+                if (i % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        } finally {
+            DBConnectionPool.release(pooled);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBConnectionPool.shutdown();
+    }
+
+    @Benchmark
+    public List<List<String>> getListData() {
+        return DBUtility.getListData("SELECT * FROM actor");
+    }
+
+    @Benchmark
+    public List<List<String>> getListDataParameterized() {
+        return DBUtility.getListData("SELECT * FROM actor WHERE last_name = ?", "LAST7");
+    }
+
+    @Benchmark
+    public void forEachRow(Blackhole blackhole) throws SQLException {
+        DBUtility.forEachRow("SELECT * FROM actor", row -> blackhole.consume(row.getString(2)));
+    }
+}
@@ -0,0 +1,63 @@
+package Benchmarks;
+
+import ApachePOI.ExcelUtils;
+import Utilities.ExcelUtility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ExcelUtility.getListData with ExcelUtils.readExcel on generated .xls and
+ * .xlsx sheets, with the workbook reader and with the streaming reader (excel.streaming).
+ * The 100k row .xls fixture holds 65535 rows, the most an .xls sheet can hold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExcelReadBenchmark {
+
+    @Param({"xls", "xlsx"})
+    public String format;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public String streaming;
+
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Read once by the utilities when their classes are initialized, each parameter set runs in a fresh fork
+        System.setProperty("excel.streaming", streaming);
+        path = Fixtures.workbook(format, rows).toString();
+    }
+
+    @Benchmark
+    public List<List<String>> excelUtilityGetListData() {
+        return ExcelUtility.getListData(path, Fixtures.SHEET_NAME, Fixtures.HEADERS.length);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> excelUtilsReadExcel() {
+        return ExcelUtils.readExcel(path, Fixtures.SHEET_NAME);
+    }
+}
@@ -0,0 +1,84 @@
+package Benchmarks;
+
+import Utilities.ExcelUtility;
+import Utilities.ResultSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of appending result rows with ExcelUtility.writeExcel to a results
+ * file that already holds a given number of rows.
+ *
+ * enqueueRow is only what scenario threads pay: each row is queued, measured per batch of
+ * 1000 rows. appendBatch is the full cost of a batch of rows as the file grows: queueing
+ * a batch (-Dresults.batchSize rows) and closing the sink, which loads the existing
+ * workbook, appends the rows and writes the file. appendAndPersist does the same for a
+ * single row. The file is reset before each iteration, so every iteration starts from
+ * the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1000)
+@Measurement(iterations = 10, batchSize = 1000)
+@Fork(1)
+public class ExcelWriteBenchmark {
+
+    private static final int BATCH_ROWS = Integer.getInteger("results.batchSize", 50);
+
+    @Param({"0", "1000", "10000"})
+    public int existingRows;
+
+    private String path;
+    private int scenario;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        ResultSink.closeAll();
+        Path results = Fixtures.scratch("results-" + existingRows + ".xlsx");
+        Files.deleteIfExists(results);
+        path = results.toString();
+        for (int i = 0; i < existingRows; i++) {
+            ExcelUtility.writeExcel(path, "existing-" + i, "PASSED", "chrome", "0");
+        }
+        ResultSink.closeAll();
+    }
+
+    @Benchmark
+    public void enqueueRow() {
+        ExcelUtility.writeExcel(path, "scenario-" + scenario++, "PASSED", "chrome", "1.5");
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void appendBatch() {
+        for (int i = 0; i < BATCH_ROWS; i++) {
+            ExcelUtility.writeExcel(path, "scenario-" + scenario++, "PASSED", "chrome", "1.5");
+        }
+        ResultSink.closeAll();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void appendAndPersist() {
+        ExcelUtility.writeExcel(path, "scenario-" + scenario++, "PASSED", "chrome", "1.5");
+        ResultSink.closeAll();
+    }
+}
@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Fixtures generates the workbooks the benchmarks read and write, so no test data
+ * has to be checked in or downloaded. Files go to target/benchmark-fixtures.
+ */
+public class Fixtures {
+
+    public static final String SHEET_NAME = "TestData";
+    public static final String[] HEADERS = {"username", "password", "quantity", "price"};
+
+    private static final Path DIR = Paths.get("target", "benchmark-fixtures");
+
+    /**
+     * Creates a workbook with a header row and the given number of data rows.
+     * An .xls sheet holds at most 65536 rows, so .xls fixtures are capped at 65535 data rows.
+     *
+     * @param format "xls" or "xlsx"
+     * @param rows Number of data rows
+     * @return Path to the generated file
+     */
+    public static Path workbook(String format, int rows) throws IOException {
+        boolean xls = "xls".equals(format);
+        int dataRows = xls ? Math.min(rows, SpreadsheetVersion.EXCEL97.getLastRowIndex()) : rows;
+        Path path = DIR.resolve("data-" + dataRows + "." + format);
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Files.createDirectories(DIR);
+        try (Workbook workbook = xls ? new HSSFWorkbook() : new SXSSFWorkbook(1000);
+             FileOutputStream out = new FileOutputStream(path.toFile())) {
+            Sheet sheet = workbook.createSheet(SHEET_NAME);
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < HEADERS.length; i++) {
+                header.createCell(i).setCellValue(HEADERS[i]);
+            }
+            for (int r = 1; r <= dataRows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("user" + r);
+                row.createCell(1).setCellValue("secret" + (r % 97));
+                row.createCell(2).setCellValue(r % 10 + 1);
+                row.createCell(3).setCellValue(r * 0.25);
+            }
+            workbook.write(out);
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return Path for a scratch file in the fixture directory
+     */
+    public static Path scratch(String name) throws IOException {
+        Files.createDirectories(DIR);
+        return DIR.resolve(name);
+    }
+}
@@ -1,5 +1,6 @@
 package ApachePOI;
 
+import Utilities.ExcelStreamReader;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -8,18 +9,34 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ExcelUtils {
-    
+
+    // Read sheets with the event-based ExcelStreamReader instead of WorkbookFactory
+    private static final boolean STREAMING = Boolean.getBoolean("excel.streaming");
+
     /**
      * Reads data from an Excel file
+     * With -Dexcel.streaming=true the sheet is read with ExcelStreamReader
      * @param filePath Path to the Excel file
      * @param sheetName Name of the sheet to read
      * @return List of rows, where each row is a Map of column names and values
      */
     public static List<Map<String, String>> readExcel(String filePath, String sheetName) {
+        if (STREAMING) {
+            try (Stream<Map<String, String>> rows = streamExcel(filePath, sheetName)) {
+                return rows.collect(Collectors.toList());
+            }
+        }
+
         List<Map<String, String>> data = new ArrayList<>();
         
         try (FileInputStream fis = new FileInputStream(filePath);
@@ -76,6 +93,35 @@ public class ExcelUtils {
         return data;
     }
 
+    /**
+     * Streams the data rows of an Excel sheet without loading the workbook into memory.
+     * The first row supplies the column names; missing rows are skipped.
+     * Close the stream when done.
+     * @param filePath Path to the Excel file
+     * @param sheetName Name of the sheet to read
+     * @return Stream of rows, where each row is a Map of column names and values
+     */
+    public static Stream<Map<String, String>> streamExcel(String filePath, String sheetName) {
+        Stream<List<String>> rows = ExcelStreamReader.stream(filePath, sheetName, 0);
+        Iterator<List<String>> iterator = rows.iterator();
+        if (!iterator.hasNext()) {
+            rows.close();
+            return Stream.empty();
+        }
+        List<String> headers = iterator.next();
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(rows::close)
+                .filter(row -> !row.isEmpty())
+                .map(row -> {
+                    Map<String, String> rowData = new HashMap<>();
+                    for (int j = 0; j < headers.size(); j++) {
+                        rowData.put(headers.get(j), j < row.size() ? row.get(j) : "");
+                    }
+                    return rowData;
+                });
+    }
+
     /**
      * Creates a new Excel file with sample data
      * @param filePath Path where to save the Excel file
@@ -1,9 +1,11 @@
 package Pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import Utilities.BaseDriver;
 import org.openqa.selenium.WebDriver;
 
@@ -16,7 +18,7 @@ import java.util.List;
 public class DialogueContent extends Parent {
     
     public DialogueContent() {
-        PageFactory.initElements(BaseDriver.getDriver(), this);
+        PageElements.initElements(this);
     }
 
     @FindBy(name = "username")
@@ -37,6 +39,16 @@ public class DialogueContent extends Parent {
     @FindBy(id = "successMessage")
     private WebElement successMessage;
 
+    /**
+     * The login page is ready once the username field is visible and the login button clickable
+     */
+    @Override
+    protected ExpectedCondition<?> readiness() {
+        return ExpectedConditions.and(
+                ExpectedConditions.visibilityOf(usernameInput),
+                ExpectedConditions.elementToBeClickable(loginButton));
+    }
+
     WebElement myElement;
     public void findAndSend(String elementName,String value)
     {
@@ -135,10 +147,34 @@ public class DialogueContent extends Parent {
     }
 
     /**
-     * Cleans up the WebDriver instance
+     * Logs in through the login form and waits for the dashboard
+     * @param username Username to enter
+     * @param password Password to enter
+     */
+    public void login(String username, String password) {
+        findAndSend("username", username);
+        findAndSend("password", password);
+        findAndClick("loginButton");
+        waitUntilVisible(dashboardText);
+    }
+
+    /**
+     * Checks whether the current page shows the dashboard of a logged-in user
+     * @return true if the dashboard appears within the default wait timeout
+     */
+    public boolean isLoggedIn() {
+        try {
+            waitUntilVisible(dashboardText);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cleans up the WebDriver instance once pending requests have finished
      */
     public void cleanupDriver() {
-        Parent.delay(5);
         BaseDriver.quitDriver();
     }
 } 
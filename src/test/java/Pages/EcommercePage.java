@@ -1,8 +1,10 @@
 package Pages;
 
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import Utilities.BaseDriver;
 import org.testng.Assert;
 
@@ -17,7 +19,7 @@ import java.util.Random;
 public class EcommercePage extends Parent {
     
     public EcommercePage() {
-        PageFactory.initElements(BaseDriver.getDriver(), this);
+        PageElements.initElements(this);
     }
 
     // Cookie consent elements
@@ -47,6 +49,9 @@ public class EcommercePage extends Parent {
     // Shopping cart elements
     @FindBy(id = "cartIcon")
     private WebElement cartIcon;
+
+    @FindBy(css = "#cartIcon .cart-count")
+    private WebElement cartBadge;
     
     @FindBy(css = ".cart-item")
     private List<WebElement> cartItems;
@@ -75,6 +80,14 @@ public class EcommercePage extends Parent {
     // List to store noted prices
     private List<Double> notedPrices = new ArrayList<>();
 
+    /**
+     * The shop is ready once the category menu is visible
+     */
+    @Override
+    protected ExpectedCondition<?> readiness() {
+        return ExpectedConditions.visibilityOf(categoryMenu);
+    }
+
     /**
      * Accepts cookies if the consent dialog is present
      */
@@ -94,11 +107,10 @@ public class EcommercePage extends Parent {
      */
     public void navigateToCategory(String categoryName) {
         waitUntilVisible(categoryMenu);
-        for (WebElement category : categoryItems) {
-            if (category.getText().equals(categoryName)) {
-                clickFunction(category);
-                break;
-            }
+        List<WebElement> categories = new ArrayList<>(categoryItems);
+        int index = batchRead(categories).indexOfText(categoryName);
+        if (index >= 0) {
+            clickFunction(categories.get(index));
         }
     }
 
@@ -121,11 +133,27 @@ public class EcommercePage extends Parent {
             notedPrices.add(itemPrice);
             
             // Add to cart
-            scrollToElement(addButton);
+            String badgeBefore = cartBadgeText();
             clickFunction(addButton);
             
             // Wait for add to cart confirmation
-            Parent.delay(1);
+            if (badgeBefore != null) {
+                waitUntilTextChanges(cartBadge, badgeBefore);
+            } else {
+                waitUntilSettled();
+            }
+        }
+    }
+
+    /**
+     * Reads the item count shown on the cart icon
+     * @return Badge text, or null if the page has no cart badge
+     */
+    private String cartBadgeText() {
+        try {
+            return cartBadge.getText();
+        } catch (NoSuchElementException e) {
+            return null;
         }
     }
 
@@ -161,8 +189,8 @@ public class EcommercePage extends Parent {
      * Verifies that each item's quantity is 1
      */
     public void verifyItemQuantities() {
-        for (WebElement quantity : cartItemQuantities) {
-            Assert.assertEquals(quantity.getText(), "1",
+        for (String quantity : batchRead(cartItemQuantities).texts()) {
+            Assert.assertEquals(quantity, "1",
                 "Item quantity is not 1");
         }
     }
@@ -171,9 +199,13 @@ public class EcommercePage extends Parent {
      * Verifies that each item's subtotal matches its price
      */
     public void verifyItemSubtotals() {
-        for (int i = 0; i < cartItems.size(); i++) {
-            double itemPrice = Double.parseDouble(cartItemPrices.get(i).getText().replace("$", ""));
-            double subtotal = Double.parseDouble(cartItemSubtotals.get(i).getText().replace("$", ""));
+        int itemCount = cartItems.size();
+        List<Double> prices = batchRead(cartItemPrices).amounts();
+        List<Double> subtotals = batchRead(cartItemSubtotals).amounts();
+
+        for (int i = 0; i < itemCount; i++) {
+            double itemPrice = prices.get(i);
+            double subtotal = subtotals.get(i);
             
             Assert.assertEquals(subtotal, itemPrice, 0.01,
                 "Item subtotal doesn't match its price");
@@ -216,10 +248,9 @@ public class EcommercePage extends Parent {
     }
 
     /**
-     * Cleans up the WebDriver instance
+     * Cleans up the WebDriver instance once pending requests have finished
      */
     public void cleanupDriver() {
-        Parent.delay(5);
         BaseDriver.quitDriver();
     }
 } 
\ No newline at end of file
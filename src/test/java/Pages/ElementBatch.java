@@ -0,0 +1,96 @@
+package Pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ElementBatch holds the texts and attributes of a list of elements read in a single
+ * browser round trip by {@link Parent#batchRead}.
+ * Rows are in the same order as the elements that were read.
+ */
+public class ElementBatch {
+
+    private final List<String> attributeNames;
+    private final List<String> texts;
+    private final List<List<String>> attributes;
+
+    ElementBatch(List<String> attributeNames, List<String> texts, List<List<String>> attributes) {
+        this.attributeNames = attributeNames;
+        this.texts = Collections.unmodifiableList(texts);
+        this.attributes = attributes;
+    }
+
+    static ElementBatch empty(List<String> attributeNames) {
+        return new ElementBatch(attributeNames, new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * @return Number of elements read
+     */
+    public int size() {
+        return texts.size();
+    }
+
+    /**
+     * @param index Element index
+     * @return Trimmed visible text of the element
+     */
+    public String text(int index) {
+        return texts.get(index);
+    }
+
+    /**
+     * @return Trimmed visible texts of all elements
+     */
+    public List<String> texts() {
+        return texts;
+    }
+
+    /**
+     * @param index Element index
+     * @param name Attribute name, must be one of the names passed to batchRead
+     * @return Attribute value, or null if the element does not have it
+     */
+    public String attribute(int index, String name) {
+        int position = attributeNames.indexOf(name);
+        if (position < 0) {
+            throw new IllegalArgumentException("Attribute '" + name + "' was not read, read attributes: " + attributeNames);
+        }
+        return attributes.get(index).get(position);
+    }
+
+    /**
+     * Parses each text as a currency amount, e.g. "$12.50" becomes 12.5.
+     *
+     * @return Amounts in element order
+     */
+    public List<Double> amounts() {
+        List<Double> amounts = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            amounts.add(Double.parseDouble(text.replace("$", "").replace(",", "").trim()));
+        }
+        return amounts;
+    }
+
+    /**
+     * @param text Text to match exactly
+     * @return Index of the first element with this text, or -1 if none
+     */
+    public int indexOfText(String text) {
+        return texts.indexOf(text);
+    }
+
+    /**
+     * @param part Text to look for
+     * @return Index of the first element whose text contains the given part, or -1 if none
+     */
+    public int indexOfTextContaining(String part) {
+        for (int i = 0; i < texts.size(); i++) {
+            if (texts.get(i).contains(part)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,344 @@
+package Pages;
+
+import Utilities.BaseDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ElementCache keeps the elements a page object field resolved to, so a field used many
+ * times in a row (e.g. a product list read in a loop) is not looked up again on every access.
+ *
+ * Cached elements are trusted until the page may have changed: after every step and after
+ * each interaction or wait in Parent. The next access then revalidates all cached fields of
+ * the thread in one script call. An entry survives if the page was not navigated, its
+ * elements are still attached and, for lists, no element was added to or removed from the
+ * subtree holding them (tracked by a MutationObserver in the page). Otherwise it is looked
+ * up again. A StaleElementReferenceException on a cached element re-resolves it and retries
+ * the call once.
+ *
+ * Fields annotated with @CacheLookup are kept for the whole page object, as in PageFactory.
+ * Disable with -Dpage.lookupCache=false.
+ */
+public class ElementCache {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("page.lookupCache", "true"));
+
+    // Installs one observer per document; it stamps the ancestors of every added or removed node
+    // with a version, so a list is only invalid if its own subtree changed
+    private static final String VALIDATE_SCRIPT =
+            "var state = window.__elementCache;" +
+            "if (!state) {" +
+            "  state = window.__elementCache = {id: Date.now().toString(36) + Math.random().toString(36).slice(2), version: 0};" +
+            "  new MutationObserver(function (records) {" +
+            "    state.version++;" +
+            "    for (var i = 0; i < records.length; i++) {" +
+            "      for (var n = records[i].target; n && n.__elementCacheVersion !== state.version; n = n.parentNode) {" +
+            "        n.__elementCacheVersion = state.version;" +
+            "      }" +
+            "    }" +
+            "  }).observe(document, {childList: true, subtree: true});" +
+            "}" +
+            "var sets = arguments[0], docIds = arguments[1], versions = arguments[2], lists = arguments[3], valid = [];" +
+            "for (var i = 0; i < sets.length; i++) {" +
+            "  var els = sets[i], ok = docIds[i] === state.id;" +
+            "  for (var j = 0; ok && j < els.length; j++) { ok = els[j].isConnected; }" +
+            "  if (ok && lists[i]) {" +
+            "    var root = els[0].parentNode;" +
+            "    for (var j = 1; root && j < els.length; j++) {" +
+            "      while (root && !root.contains(els[j])) { root = root.parentNode; }" +
+            "    }" +
+            "    ok = !!root && !((root.__elementCacheVersion || 0) > versions[i]);" +
+            "  }" +
+            "  valid.push(ok);" +
+            "}" +
+            "return [state.id, state.version, valid];";
+
+    /**
+     * Cache state of one thread: the current epoch and the last document seen.
+     */
+    private static class ThreadState {
+        long epoch;
+        String docId;
+        long version;
+        final List<Entry> entries = new ArrayList<>();
+    }
+
+    private static final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+    private static final LongAdder hitCount = new LongAdder();
+    private static final LongAdder revalidatedCount = new LongAdder();
+    private static final LongAdder missCount = new LongAdder();
+    private static final LongAdder invalidatedCount = new LongAdder();
+    private static final LongAdder staleRetryCount = new LongAdder();
+    private static final LongAdder validationCount = new LongAdder();
+
+    /**
+     * Lookup state of one page object field.
+     */
+    static class Entry {
+        final By by;
+        final boolean list;
+        final boolean cacheLookup;
+        List<WebElement> elements;
+        List<WebElement> proxies;
+        long epoch;
+        String docId;
+        long version;
+        boolean registered;
+
+        Entry(By by, boolean list, boolean cacheLookup) {
+            this.by = by;
+            this.list = list;
+            this.cacheLookup = cacheLookup;
+        }
+
+        void invalidate() {
+            elements = null;
+            proxies = null;
+        }
+
+        @Override
+        public String toString() {
+            return "ElementCache '" + by + "'";
+        }
+    }
+
+    /**
+     * Marks every cached element of the current thread as possibly changed.
+     * They are revalidated, all in one call, the next time one of them is used.
+     */
+    public static void invalidate() {
+        threadState.get().epoch++;
+    }
+
+    /**
+     * Forgets the current thread's entries, e.g. when its page objects are dropped.
+     */
+    public static void clear() {
+        threadState.remove();
+    }
+
+    /**
+     * @return Proxy for a single-element field
+     */
+    static WebElement elementProxy(Entry entry, ClassLoader loader) {
+        return (WebElement) Proxy.newProxyInstance(loader,
+                new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class}, new ElementHandler(entry, -1));
+    }
+
+    /**
+     * @return Proxy for a List&lt;WebElement&gt; field
+     */
+    @SuppressWarnings("unchecked")
+    static List<WebElement> listProxy(Entry entry, ClassLoader loader) {
+        return (List<WebElement>) Proxy.newProxyInstance(loader, new Class<?>[]{List.class}, (proxy, method, args) -> {
+            if ("toString".equals(method.getName()) && args == null) {
+                return "Proxy list for: " + entry;
+            }
+            return invoke(method, lookup(entry), args);
+        });
+    }
+
+    /**
+     * Returns the elements of an entry, from the cache if they are still valid.
+     * For single-element entries a missing element throws NoSuchElementException and nothing is cached.
+     */
+    static List<WebElement> lookup(Entry entry) {
+        ThreadState state = threadState.get();
+        if (entry.elements != null) {
+            if (entry.cacheLookup || entry.epoch == state.epoch) {
+                hitCount.increment();
+                return entry.proxies;
+            }
+            validate(state);
+            if (entry.elements != null) {
+                return entry.proxies;
+            }
+        }
+
+        WebDriver driver = BaseDriver.getDriver();
+        List<WebElement> elements = entry.list
+                ? driver.findElements(entry.by)
+                : Collections.singletonList(driver.findElement(entry.by));
+        if (!ENABLED && !entry.cacheLookup) {
+            return elements;
+        }
+        missCount.increment();
+        if (elements.isEmpty()) {
+            // Elements may still appear, e.g. while a wait polls the list
+            return elements;
+        }
+
+        entry.elements = elements;
+        entry.epoch = state.epoch;
+        entry.docId = state.docId;
+        entry.version = state.version;
+        if (entry.list) {
+            ClassLoader loader = ElementCache.class.getClassLoader();
+            List<WebElement> proxies = new ArrayList<>(elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                proxies.add((WebElement) Proxy.newProxyInstance(loader,
+                        new Class<?>[]{WebElement.class, WrapsElement.class, Locatable.class}, new ElementHandler(entry, i)));
+            }
+            entry.proxies = Collections.unmodifiableList(proxies);
+        } else {
+            entry.proxies = elements;
+        }
+        if (!entry.registered && !entry.cacheLookup) {
+            state.entries.add(entry);
+            entry.registered = true;
+        }
+        return entry.proxies;
+    }
+
+    /**
+     * Revalidates every outdated entry of the thread with one script call.
+     */
+    private static void validate(ThreadState state) {
+        List<Entry> outdated = new ArrayList<>();
+        for (Entry entry : state.entries) {
+            if (entry.elements != null && entry.epoch != state.epoch) {
+                outdated.add(entry);
+            }
+        }
+
+        WebDriver driver = BaseDriver.getDriver();
+        if (!BaseDriver.supportsJavascript(driver)) {
+            // Nothing to validate with, look everything up again
+            for (Entry entry : outdated) {
+                entry.invalidate();
+                invalidatedCount.increment();
+            }
+            return;
+        }
+
+        List<Object> sets = new ArrayList<>(outdated.size());
+        List<Object> docIds = new ArrayList<>(outdated.size());
+        List<Object> versions = new ArrayList<>(outdated.size());
+        List<Object> lists = new ArrayList<>(outdated.size());
+        for (Entry entry : outdated) {
+            sets.add(entry.elements);
+            docIds.add(entry.docId);
+            versions.add(entry.version);
+            lists.add(entry.list);
+        }
+
+        List<?> result;
+        try {
+            result = (List<?>) ((JavascriptExecutor) driver).executeScript(VALIDATE_SCRIPT, sets, docIds, versions, lists);
+        } catch (WebDriverException e) {
+            // Typically a stale element in the arguments after a navigation
+            result = null;
+        }
+        validationCount.increment();
+
+        List<?> valid = result == null ? Collections.emptyList() : (List<?>) result.get(2);
+        if (result != null) {
+            state.docId = String.valueOf(result.get(0));
+            state.version = ((Number) result.get(1)).longValue();
+        }
+        for (int i = 0; i < outdated.size(); i++) {
+            Entry entry = outdated.get(i);
+            if (i < valid.size() && Boolean.TRUE.equals(valid.get(i))) {
+                entry.epoch = state.epoch;
+                entry.version = state.version;
+                revalidatedCount.increment();
+            } else {
+                entry.invalidate();
+                invalidatedCount.increment();
+            }
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Element proxy that resolves through the cache and retries once on a stale element.
+     * index is the position in a list entry, or -1 for a single-element entry.
+     */
+    private static class ElementHandler implements InvocationHandler {
+        private final Entry entry;
+        private final int index;
+
+        ElementHandler(Entry entry, int index) {
+            this.entry = entry;
+            this.index = index;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("toString".equals(method.getName()) && args == null) {
+                return "Proxy element for: " + entry;
+            }
+            try {
+                return call(method, args);
+            } catch (StaleElementReferenceException e) {
+                entry.invalidate();
+                staleRetryCount.increment();
+                return call(method, args);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            WebElement element = resolve();
+            if ("getWrappedElement".equals(method.getName())) {
+                return element;
+            }
+            return ElementCache.invoke(method, element, args);
+        }
+
+        private WebElement resolve() {
+            if (index < 0) {
+                return unwrap(lookup(entry).get(0));
+            }
+            // A list element: take the same position in the current (possibly re-resolved) list
+            List<WebElement> found = lookup(entry);
+            List<WebElement> elements = entry.elements != null ? entry.elements : found;
+            if (index >= elements.size()) {
+                throw new StaleElementReferenceException("Element " + index + " of " + entry + " is no longer on the page");
+            }
+            return elements.get(index);
+        }
+
+        private static WebElement unwrap(WebElement element) {
+            return element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+        }
+    }
+
+    /**
+     * Returns a one-line summary of element lookups.
+     */
+    public static String statsSummary() {
+        long hits = hitCount.sum() + revalidatedCount.sum();
+        long total = hits + missCount.sum();
+        return "ElementCache: " + (ENABLED ? "" : "disabled, ")
+                + "hits=" + hitCount.sum()
+                + ", revalidated=" + revalidatedCount.sum()
+                + ", misses=" + missCount.sum()
+                + ", invalidated=" + invalidatedCount.sum()
+                + ", staleRetries=" + staleRetryCount.sum()
+                + ", validations=" + validationCount.sum()
+                + ", hitRate=" + (total == 0 ? 0 : hits * 100 / total) + "%";
+    }
+}
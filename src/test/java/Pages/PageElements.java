@@ -0,0 +1,100 @@
+package Pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.Annotations;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PageElements is a drop-in for PageFactory.initElements that does not need a driver.
+ *
+ * The @FindBy, @FindBys and @FindAll fields of a page class are scanned and turned into
+ * locators once per class, not for every page object. Each field gets a proxy that looks
+ * the element up in the current thread's driver on first use, so creating a page object
+ * never launches a browser. Lookups go through ElementCache.
+ *
+ * Unlike PageFactory, WebElement fields without a locator annotation are left alone.
+ */
+public class PageElements {
+
+    /**
+     * Locator metadata of one annotated field.
+     */
+    private static class ElementField {
+        final Field field;
+        final By by;
+        final boolean list;
+        final boolean cacheLookup;
+
+        ElementField(Field field, By by, boolean list, boolean cacheLookup) {
+            this.field = field;
+            this.by = by;
+            this.list = list;
+            this.cacheLookup = cacheLookup;
+        }
+    }
+
+    private static final ClassValue<List<ElementField>> FIELDS = new ClassValue<List<ElementField>>() {
+        @Override
+        protected List<ElementField> computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
+
+    /**
+     * Sets every locator-annotated WebElement and List&lt;WebElement&gt; field of a page object
+     * to a lazy proxy.
+     *
+     * @param page Page object to initialise
+     */
+    public static void initElements(Object page) {
+        ClassLoader loader = page.getClass().getClassLoader();
+        for (ElementField elementField : FIELDS.get(page.getClass())) {
+            ElementCache.Entry entry = new ElementCache.Entry(elementField.by, elementField.list, elementField.cacheLookup);
+            Object proxy = elementField.list
+                    ? ElementCache.listProxy(entry, loader)
+                    : ElementCache.elementProxy(entry, loader);
+            try {
+                elementField.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Error initialising " + elementField.field + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static List<ElementField> scan(Class<?> type) {
+        List<ElementField> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(FindBy.class) && !field.isAnnotationPresent(FindBys.class)
+                        && !field.isAnnotationPresent(FindAll.class)) {
+                    continue;
+                }
+                boolean list = isWebElementList(field);
+                if (!list && field.getType() != WebElement.class) {
+                    continue;
+                }
+                Annotations annotations = new Annotations(field);
+                field.setAccessible(true);
+                fields.add(new ElementField(field, annotations.buildBy(), list, annotations.isLookupCached()));
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isWebElementList(Field field) {
+        if (field.getType() != List.class || !(field.getGenericType() instanceof ParameterizedType)) {
+            return false;
+        }
+        Type[] arguments = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+        return arguments.length == 1 && arguments[0] == WebElement.class;
+    }
+}
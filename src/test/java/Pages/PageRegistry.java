@@ -0,0 +1,43 @@
+package Pages;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PageRegistry holds the page objects of the scenario running on the current thread.
+ *
+ * Step definition classes ask for a page with PageRegistry.get(...) instead of creating it
+ * in a field initializer. A page is created on first use and shared by all step classes
+ * of the scenario; steps that never touch a page never create it. Hooks clears the registry
+ * after every scenario.
+ */
+public class PageRegistry {
+
+    private static final ThreadLocal<Map<Class<?>, Object>> pages = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Returns the scenario's instance of a page, creating it on first use.
+     *
+     * @param pageClass Page object class with a no-argument constructor
+     * @return Page object for the current scenario
+     */
+    public static <T> T get(Class<T> pageClass) {
+        Object page = pages.get().get(pageClass);
+        if (page == null) {
+            try {
+                page = pageClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Error creating page object " + pageClass.getName() + ": " + e.getMessage(), e);
+            }
+            pages.get().put(pageClass, page);
+        }
+        return pageClass.cast(page);
+    }
+
+    /**
+     * Drops the current thread's page objects, so the next scenario starts with new ones.
+     */
+    public static void clear() {
+        pages.remove();
+    }
+}
@@ -1,69 +1,174 @@
 package Pages;
 
 import Utilities.BaseDriver;
+import Utilities.Metrics;
+import Utilities.PageLoad;
+import Utilities.Readiness;
+import Utilities.WaitPolicy;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Parent class provides common WebDriver operations and utility methods.
  * This class serves as a base for all page objects and contains reusable methods
  * for interacting with web elements.
+ * The interaction and wait helpers record their latency in Metrics.
+ * Interactions and waits for page changes tell ElementCache to revalidate cached elements.
  */
 public class Parent {
-    
+
+    // Hidden elements report empty text, like WebElement.getText()
+    private static final String BATCH_READ_SCRIPT =
+            "var elements = arguments[0], names = arguments[1], rows = [];" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "  var e = elements[i];" +
+            "  var visible = !!(e.offsetWidth || e.offsetHeight || e.getClientRects().length);" +
+            "  var row = [visible ? e.innerText : ''];" +
+            "  for (var j = 0; j < names.length; j++) { row.push(e.getAttribute(names[j])); }" +
+            "  rows.push(row);" +
+            "}" +
+            "return rows;";
+
+    // Checks in one call whether an element is ready for an action ("click", "type" or "scroll"),
+    // scrolling it into view instantly only when it is outside the viewport, or to the center
+    // when it is covered, e.g. by a sticky header. For "type" the value of an editable input
+    // or textarea is cleared as well, through the native setter so frameworks that track the
+    // value see the change. Returns "ready", "cleared" or why it is not ready.
+    private static final String PREPARE_SCRIPT =
+            "var e = arguments[0], action = arguments[1];" +
+            "if (!e.isConnected) return 'detached';" +
+            "if (action !== 'scroll') {" +
+            "  if (!(e.offsetWidth || e.offsetHeight || e.getClientRects().length)" +
+            "      || getComputedStyle(e).visibility === 'hidden') return 'hidden';" +
+            "  if (e.disabled) return 'disabled';" +
+            "}" +
+            "function center() { e.scrollIntoView({block: 'center', inline: 'nearest', behavior: 'instant'}); return e.getBoundingClientRect(); }" +
+            "function covered(r) { var top = document.elementFromPoint(r.left + r.width / 2, r.top + r.height / 2);" +
+            "  return top && top !== e && !e.contains(top); }" +
+            "var r = e.getBoundingClientRect();" +
+            "var centered = r.top < 0 || r.left < 0 || r.bottom > window.innerHeight || r.right > window.innerWidth;" +
+            "if (centered) r = center();" +
+            "if (action === 'click' && covered(r) && (centered || covered(center()))) return 'covered';" +
+            "if (action === 'type' && (e.tagName === 'INPUT' || e.tagName === 'TEXTAREA') && !e.readOnly && e.value !== '') {" +
+            "  var proto = e.tagName === 'INPUT' ? HTMLInputElement.prototype : HTMLTextAreaElement.prototype;" +
+            "  Object.getOwnPropertyDescriptor(proto, 'value').set.call(e, '');" +
+            "  e.dispatchEvent(new Event('input', {bubbles: true}));" +
+            "  e.dispatchEvent(new Event('change', {bubbles: true}));" +
+            "  return 'cleared';" +
+            "}" +
+            "return action === 'type' && (e.tagName === 'INPUT' || e.tagName === 'TEXTAREA') && !e.readOnly ? 'cleared' : 'ready';";
+
     /**
      * Sends keys to a web element after ensuring it's visible and scrollable.
      * Includes clearing the element before sending new keys.
+     * Readiness, scrolling and clearing an input take one script call; only the typing is native.
      *
      * @param element WebElement to interact with
      * @param value Text to send to the element
      */
     public void sendKeysFunction(WebElement element, String value) {
-        waitUntilVisible(element);
-        scrollToElement(element);
-        element.clear();
-        element.sendKeys(value);
+        Metrics.time(actionName("sendKeysFunction"), () -> {
+            if (!"cleared".equals(prepare(element, "type"))) {
+                element.clear();
+            }
+            element.sendKeys(value);
+            ElementCache.invalidate();
+        });
     }
 
     /**
      * Clicks on a web element after ensuring it's clickable and scrollable.
+     * Readiness and scrolling take one script call, followed by the native click.
      *
      * @param element WebElement to click
      */
     public void clickFunction(WebElement element) {
-        waitUntilClickable(element);
-        scrollToElement(element);
-        element.click();
+        Metrics.time(actionName("clickFunction"), () -> {
+            prepare(element, "click");
+            element.click();
+            ElementCache.invalidate();
+        });
     }
 
     /**
      * Waits until a web element becomes visible on the page.
-     * Uses WebDriverWait with a 10-second timeout.
+     * Uses WaitPolicy with a 10-second timeout.
      *
      * @param element WebElement to wait for
      */
     public static void waitUntilVisible(WebElement element) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(10));
-        wait.until(ExpectedConditions.visibilityOf(element));
+        Metrics.time("Parent.waitUntilVisible", () ->
+                WaitPolicy.until(ExpectedConditions.visibilityOf(element), WaitPolicy.keyFor(element), WaitPolicy.DEFAULT_TIMEOUT));
     }
 
     /**
      * Scrolls the page until the specified element is in view.
-     * Uses JavaScript executor for smooth scrolling.
+     * Scrolls instantly, and not at all if the element is already in the viewport.
      *
      * @param element WebElement to scroll to
      */
     public void scrollToElement(WebElement element) {
+        Metrics.time(actionName("scrollToElement"), () -> {
+            if (!BaseDriver.supportsJavascript(BaseDriver.getDriver())) {
+                // HtmlUnit without JavaScript has no viewport to scroll
+                return;
+            }
+            JavascriptExecutor js = (JavascriptExecutor) BaseDriver.getDriver();
+            js.executeScript(PREPARE_SCRIPT, element, "scroll");
+        });
+    }
+
+    /**
+     * Waits until an element is ready for an action and scrolls it into view, polling one
+     * script call at a time. Without JavaScript (HtmlUnit) it falls back to the explicit waits.
+     * If the element does not get ready in time, the native action is tried anyway, so it
+     * fails with WebDriver's own error, e.g. ElementClickInterceptedException.
+     *
+     * @param element WebElement to prepare
+     * @param action "click" (visible, enabled, not covered) or "type" (visible, enabled, input cleared)
+     * @return "cleared" if the script cleared the element's value, "ready" otherwise
+     */
+    private String prepare(WebElement element, String action) {
+        if (!BaseDriver.supportsJavascript(BaseDriver.getDriver())) {
+            if ("click".equals(action)) {
+                waitUntilClickable(element);
+            } else {
+                waitUntilVisible(element);
+            }
+            return "ready";
+        }
         JavascriptExecutor js = (JavascriptExecutor) BaseDriver.getDriver();
-        js.executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
+        try {
+            return WaitPolicy.until(new ExpectedCondition<String>() {
+                @Override
+                public String apply(WebDriver driver) {
+                    try {
+                        Object state = js.executeScript(PREPARE_SCRIPT, element, action);
+                        return "ready".equals(state) || "cleared".equals(state) ? (String) state : null;
+                    } catch (StaleElementReferenceException e) {
+                        // Let the element cache look the element up again on the next poll
+                        ElementCache.invalidate();
+                        return null;
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return "element ready to " + action;
+                }
+            }, WaitPolicy.keyFor(element), WaitPolicy.DEFAULT_TIMEOUT);
+        } catch (TimeoutException e) {
+            return "ready";
+        }
     }
 
     /**
@@ -73,20 +178,22 @@ public class Parent {
      * @param element WebElement to scroll to top
      */
     public void scrollToUpElement(WebElement element) {
+        if (!BaseDriver.supportsJavascript(BaseDriver.getDriver())) {
+            return;
+        }
         JavascriptExecutor js = (JavascriptExecutor) BaseDriver.getDriver();
-        js.executeScript("arguments[0].setAttribute('style', 'top:0px')", element);
-        js.executeScript("arguments[0].scrollIntoView();", element);
+        js.executeScript("arguments[0].setAttribute('style', 'top:0px'); arguments[0].scrollIntoView();", element);
     }
 
     /**
      * Waits until a web element becomes clickable.
-     * Uses WebDriverWait with a 10-second timeout.
+     * Uses WaitPolicy with a 10-second timeout.
      *
      * @param element WebElement to wait for
      */
     public void waitUntilClickable(WebElement element) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(10));
-        wait.until(ExpectedConditions.elementToBeClickable(element));
+        Metrics.time(actionName("waitUntilClickable"), () ->
+                WaitPolicy.until(ExpectedConditions.elementToBeClickable(element), WaitPolicy.keyFor(element), WaitPolicy.DEFAULT_TIMEOUT));
     }
 
     /**
@@ -97,17 +204,46 @@ public class Parent {
      * @return List of visible WebElements
      */
     public List<WebElement> waitVisibleListAllElement(List<WebElement> elementList) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(10));
-        wait.until(ExpectedConditions.visibilityOfAllElements(elementList));
+        Metrics.time(actionName("waitVisibleListAllElement"), () ->
+                WaitPolicy.until(ExpectedConditions.visibilityOfAllElements(elementList),
+                        WaitPolicy.keyFor(elementList), WaitPolicy.DEFAULT_TIMEOUT));
         return elementList;
     }
 
+    /**
+     * Waits until the page has no pending fetch/XHR requests and the DOM is quiet.
+     * Returns as soon as the page settles, or after 5 seconds at most.
+     */
+    public void waitUntilSettled() {
+        Metrics.time(actionName("waitUntilSettled"), () ->
+                Readiness.awaitSettled(BaseDriver.getDriver(), Readiness.DEFAULT_TIMEOUT));
+        ElementCache.invalidate();
+    }
+
+    /**
+     * Waits until an element's text differs from the given value, e.g. a counter after an action.
+     * Returns as soon as the text changes, or after 5 seconds at most.
+     *
+     * @param element WebElement to watch
+     * @param previousText Text before the action
+     * @return true if the text changed within the time limit
+     */
+    public boolean waitUntilTextChanges(WebElement element, String previousText) {
+        boolean changed = Metrics.time(actionName("waitUntilTextChanges"), () ->
+                Readiness.awaitTextChange(element, previousText, Readiness.DEFAULT_TIMEOUT));
+        ElementCache.invalidate();
+        return changed;
+    }
+
     /**
      * Pauses the execution for the specified number of seconds.
      * Should be used sparingly and only when necessary.
      *
      * @param second Number of seconds to pause
+     * @deprecated Wait on a page signal with {@link #waitUntilSettled()} or
+     *             {@link #waitUntilTextChanges(WebElement, String)} instead.
      */
+    @Deprecated
     public static void delay(int second) {
         try {
             Thread.sleep(1000L * second);
@@ -134,14 +270,15 @@ public class Parent {
 
     /**
      * Waits until the number of elements matching the selector is less than the specified number.
-     * Uses WebDriverWait with a 20-second timeout.
+     * Uses WaitPolicy with a 20-second timeout.
      *
      * @param selector By selector to find elements
      * @param number Maximum number of elements to wait for
      */
     public void waitnumberOfElementsToBeLessThan(By selector, int number) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(20));
-        wait.until(ExpectedConditions.numberOfElementsToBeLessThan(selector, number));
+        Metrics.time(actionName("waitnumberOfElementsToBeLessThan"), () ->
+                WaitPolicy.until(ExpectedConditions.numberOfElementsToBeLessThan(selector, number),
+                        selector.toString(), WaitPolicy.LONG_TIMEOUT));
     }
 
     /**
@@ -152,12 +289,104 @@ public class Parent {
      * @param option Text to match for selection
      */
     public void listSelectOption(List<WebElement> list, String option) {
-        for (WebElement element : list) {
-            if (element.getText().contains(option)) {
-                element.click();
-                break;
+        // Copy once so a page object list proxy is not looked up again
+        List<WebElement> elements = new ArrayList<>(list);
+        int index = batchRead(elements).indexOfTextContaining(option);
+        if (index >= 0) {
+            clickFunction(elements.get(index));
+        }
+    }
+
+    /**
+     * Reads the visible text and the given attributes of every element in one JavaScript call,
+     * instead of one WebDriver command per element and value.
+     *
+     * @param elements List of WebElements to read
+     * @param attributeNames Attributes to read from each element
+     * @return Texts and attributes in element order
+     */
+    public ElementBatch batchRead(List<WebElement> elements, String... attributeNames) {
+        List<String> names = Arrays.asList(attributeNames);
+        if (elements.isEmpty()) {
+            return ElementBatch.empty(names);
+        }
+        if (!BaseDriver.supportsJavascript(BaseDriver.getDriver())) {
+            return readOneByOne(elements, names);
+        }
+
+        JavascriptExecutor js = (JavascriptExecutor) BaseDriver.getDriver();
+        @SuppressWarnings("unchecked")
+        List<List<Object>> rows = (List<List<Object>>) js.executeScript(BATCH_READ_SCRIPT, elements, names);
+
+        List<String> texts = new ArrayList<>(rows.size());
+        List<List<String>> attributes = new ArrayList<>(rows.size());
+        for (List<Object> row : rows) {
+            texts.add(row.get(0) == null ? "" : row.get(0).toString().trim());
+            List<String> values = new ArrayList<>(names.size());
+            for (int i = 1; i < row.size(); i++) {
+                values.add(row.get(i) == null ? null : row.get(i).toString());
+            }
+            attributes.add(values);
+        }
+        return new ElementBatch(names, texts, attributes);
+    }
+
+    /**
+     * Reads texts and attributes with one WebDriver command per value, for drivers without JavaScript.
+     */
+    private ElementBatch readOneByOne(List<WebElement> elements, List<String> names) {
+        List<String> texts = new ArrayList<>(elements.size());
+        List<List<String>> attributes = new ArrayList<>(elements.size());
+        for (WebElement element : elements) {
+            texts.add(element.getText().trim());
+            List<String> values = new ArrayList<>(names.size());
+            for (String name : names) {
+                values.add(element.getAttribute(name));
             }
+            attributes.add(values);
         }
+        return new ElementBatch(names, texts, attributes);
+    }
+
+    /**
+     * Finds all elements matching the locator and reads their texts and attributes,
+     * two WebDriver commands in total.
+     *
+     * @param locator By selector to find elements
+     * @param attributeNames Attributes to read from each element
+     * @return Texts and attributes in element order
+     */
+    public ElementBatch batchRead(By locator, String... attributeNames) {
+        return batchRead(BaseDriver.getDriver().findElements(locator), attributeNames);
+    }
+
+    /**
+     * Opens the page and returns as soon as its readiness condition holds. With
+     * -Ddriver.pageLoad=eager or none this is before images, fonts and scripts are loaded.
+     *
+     * @param url URL of the page
+     */
+    public void open(String url) {
+        ElementCache.invalidate();
+        PageLoad.open(BaseDriver.getDriver(), url, getClass().getSimpleName(), readiness());
+    }
+
+    /**
+     * Condition that holds once the elements the page's steps need first are interactive.
+     * Page objects override it; the default waits until the document has been parsed.
+     *
+     * @return Readiness condition polled after navigating to the page
+     */
+    protected ExpectedCondition<?> readiness() {
+        return driver -> !BaseDriver.supportsJavascript(driver)
+                || !"loading".equals(((JavascriptExecutor) driver).executeScript("return document.readyState"));
+    }
+
+    /**
+     * @return Name the latency of a page-object method is recorded under, e.g. EcommercePage.clickFunction
+     */
+    protected String actionName(String method) {
+        return getClass().getSimpleName() + "." + method;
     }
 
     /**
@@ -169,11 +398,13 @@ public class Parent {
             Robot robot = new Robot();
             robot.keyPress(KeyEvent.VK_ESCAPE);
             robot.keyRelease(KeyEvent.VK_ESCAPE);
+            ElementCache.invalidate();
         } catch (AWTException e) {
             System.err.println("Failed to simulate ESC key press: " + e.getMessage());
             // Fallback to Actions class if Robot fails
             Actions actions = new Actions(BaseDriver.getDriver());
             actions.sendKeys(Keys.ESCAPE).perform();
+            ElementCache.invalidate();
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,318 @@
+package Runner;
+
+import Utilities.BaseDriver;
+import Utilities.DriverBinaries;
+import Utilities.DriverMode;
+import Utilities.ReportGenerator;
+import Utilities.ScenarioDurations;
+import io.cucumber.testng.AbstractTestNGCucumberTests;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * BaseTestRunner runs scenarios in parallel through a parallel TestNG data provider.
+ * Each scenario runs on one of the data provider threads, and BaseDriver's ThreadLocals
+ * give every thread its own browser.
+ *
+ * The worker count is the suite's data-provider-thread-count, overridable with
+ * -Dscenario.threads. Scenarios are handed out longest first, using the durations of
+ * the previous run (see ScenarioDurations), so a long scenario does not start last and
+ * become the tail of the run. Scenarios without a recorded duration go first.
+ *
+ * With -Dshard.count=N -Dshard.index=i (0-based) only shard i of N duration-balanced
+ * shards is run, see ShardLauncher.
+ *
+ * Failed scenarios are queued, and with -Drerun.attempts=N run again up to N times right
+ * after the main pass, in the same JVM: the browsers in the driver pool (except the ones
+ * flagged as broken by a failure), logged-in sessions and cached test data are reused. A
+ * failure queued for a rerun shows as skipped in TestNG; only the rerun's outcome counts.
+ * Scenarios still failing in the end are written to -Drerun.file (default target/rerun.txt),
+ * which a later run can pick up with -Dcucumber.features=@target/rerun.txt.
+ *
+ * The runners only record the run as Cucumber messages (StreamingReportPlugin); the Maven
+ * build generates the reports from them in a separate JVM once the suite is done (see
+ * ReportGenerator.main). -Dreport.inJvm=true generates them at the end of the suite instead,
+ * e.g. when the runner is started from an IDE. A rerun scenario is reported once, with its
+ * final result and its number of attempts.
+ */
+public abstract class BaseTestRunner extends AbstractTestNGCucumberTests {
+
+    private static final int RERUN_ATTEMPTS = Integer.getInteger("rerun.attempts", 0);
+    private static final Path RERUN_FILE = Paths.get(System.getProperty("rerun.file", "target/rerun.txt"));
+
+    // Scenarios of this runner that failed in the main pass, and the ones a rerun recovered
+    private final Queue<Object[]> failedScenarios = new ConcurrentLinkedQueue<>();
+    private final Set<Pickle> recoveredPickles = ConcurrentHashMap.newKeySet();
+
+    // Scenario threads to prewarm browsers for, 0 once prewarming has started or when it is off
+    private static volatile int prewarmThreads;
+
+    @BeforeSuite(alwaysRun = true)
+    public void configureScenarioThreads(ITestContext context) {
+        Integer threads = Integer.getInteger("scenario.threads");
+        if (threads != null) {
+            context.getSuite().getXmlSuite().setDataProviderThreadCount(threads);
+        }
+    }
+
+    /**
+     * Resolves the driver binaries of the browsers the suite uses (-Ddriver.browsers,
+     * default chrome) once, before any scenario thread launches a browser. Skipped in dry runs.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void resolveDriverBinaries() {
+        if (Boolean.getBoolean("cucumber.execution.dry-run")) {
+            return;
+        }
+        for (String browser : System.getProperty("driver.browsers", "chrome").split(",")) {
+            DriverBinaries.resolve(browser.trim().toLowerCase());
+        }
+    }
+
+    /**
+     * With -Ddriver.prewarm=true, prewarms one browser per scenario thread once the scenarios
+     * are known (see scenarios()), so the browsers start while the glue is still loading.
+     * Skipped in dry runs.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void prewarmDrivers(ITestContext context) {
+        if (!Boolean.getBoolean("driver.prewarm") || Boolean.getBoolean("cucumber.execution.dry-run")) {
+            return;
+        }
+        prewarmThreads = Integer.getInteger("scenario.threads", context.getSuite().getXmlSuite().getDataProviderThreadCount());
+    }
+
+    /**
+     * With -Dreport.inJvm=true, generates the reports in the test JVM at the end of the suite.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void generateReports() {
+        Path messages = Paths.get(ReportGenerator.DEFAULT_MESSAGES);
+        if (!Boolean.getBoolean("report.inJvm") || !Boolean.parseBoolean(System.getProperty("report.generate", "true"))
+                || !Files.exists(messages)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            ReportGenerator.Totals totals = ReportGenerator.generate(messages, messages.getParent());
+            System.out.println("Reports generated in " + (System.nanoTime() - start) / 1_000_000 + "ms: " + totals);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error generating reports: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs a scenario of the main pass and queues it if it fails.
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } catch (SkipException e) {
+            throw e;
+        } catch (Throwable t) {
+            failedScenarios.add(new Object[]{pickleWrapper, featureWrapper});
+            if (RERUN_ATTEMPTS <= 0) {
+                throw t;
+            }
+            throw new SkipException("Failed, queued for rerun: " + t);
+        }
+    }
+
+    /**
+     * Runs the scenarios that failed in the main pass again, each up to -Drerun.attempts times.
+     */
+    @Test(groups = "cucumber", description = "Reruns failed Cucumber Scenarios", dataProvider = "failedScenarios",
+            dependsOnMethods = "runScenario", alwaysRun = true)
+    public void rerunScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                super.runScenario(pickleWrapper, featureWrapper);
+                recoveredPickles.add(pickleWrapper.getPickle());
+                return;
+            } catch (SkipException e) {
+                throw e;
+            } catch (Throwable t) {
+                if (attempt >= RERUN_ATTEMPTS) {
+                    throw t;
+                }
+            }
+        }
+    }
+
+    @DataProvider(parallel = true)
+    public Object[][] failedScenarios() {
+        if (RERUN_ATTEMPTS <= 0 || failedScenarios.isEmpty()) {
+            return new Object[0][];
+        }
+        System.out.println("Rerunning " + failedScenarios.size() + " failed scenarios, up to "
+                + RERUN_ATTEMPTS + " attempts each");
+        return failedScenarios.toArray(new Object[0][]);
+    }
+
+    /**
+     * Writes the scenarios that are still failing to the rerun file, as feature:line:line
+     * lines like Cucumber's rerun plugin, or removes the file of an earlier run if none are.
+     */
+    @AfterClass(alwaysRun = true)
+    public void writeRerunFile() {
+        Map<String, StringBuilder> lines = new LinkedHashMap<>();
+        int stillFailing = 0;
+        for (Object[] scenario : failedScenarios) {
+            Pickle pickle = pickle(scenario);
+            if (!recoveredPickles.contains(pickle)) {
+                stillFailing++;
+                lines.computeIfAbsent(featurePath(pickle.getUri()), feature -> new StringBuilder(feature))
+                        .append(':').append(pickle.getLine());
+            }
+        }
+        if (!failedScenarios.isEmpty()) {
+            System.out.println("Rerun: failed=" + failedScenarios.size() + ", recovered=" + recoveredPickles.size()
+                    + ", stillFailing=" + stillFailing);
+        }
+        try {
+            if (lines.isEmpty()) {
+                Files.deleteIfExists(RERUN_FILE);
+                return;
+            }
+            Path dir = RERUN_FILE.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            List<String> content = new ArrayList<>();
+            for (StringBuilder line : lines.values()) {
+                content.add(line.toString());
+            }
+            Files.write(RERUN_FILE, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error writing rerun file " + RERUN_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Feature file path relative to the working directory, or the URI of a classpath feature
+     */
+    private static String featurePath(URI uri) {
+        if (!"file".equals(uri.getScheme())) {
+            return uri.toString();
+        }
+        Path path = Paths.get(uri);
+        Path workingDir = Paths.get("").toAbsolutePath();
+        return (path.startsWith(workingDir) ? workingDir.relativize(path) : path).toString().replace('\\', '/');
+    }
+
+    @Override
+    @DataProvider(parallel = true)
+    public Object[][] scenarios() {
+        Object[][] scenarios = super.scenarios();
+        ScenarioDurations durations = ScenarioDurations.load();
+
+        Object[][] ordered = scenarios.clone();
+        if (!durations.isEmpty()) {
+            Arrays.sort(ordered, Comparator.comparingLong((Object[] scenario) -> {
+                long duration = durationOf(durations, scenario);
+                return duration < 0 ? Long.MAX_VALUE : duration;
+            }).reversed());
+        }
+
+        int shardCount = Integer.getInteger("shard.count", 1);
+        if (shardCount > 1) {
+            ordered = shard(ordered, durations, Integer.getInteger("shard.index", 0), shardCount);
+        }
+        prewarm(ordered);
+        return ordered;
+    }
+
+    /**
+     * Prewarms browsers for the scenarios the threads start with, in the driver mode their tags
+     * select. Scenarios run in the default browser; a browser chosen with BaseDriver.setBrowser
+     * in a step is not prewarmed.
+     */
+    private static void prewarm(Object[][] ordered) {
+        int threads = prewarmThreads;
+        if (threads <= 0) {
+            return;
+        }
+        prewarmThreads = 0;
+        Map<DriverMode, Integer> modes = new EnumMap<>(DriverMode.class);
+        for (int i = 0; i < Math.min(threads, ordered.length); i++) {
+            modes.merge(DriverMode.forTags(pickle(ordered[i]).getTags()), 1, Integer::sum);
+        }
+        for (Map.Entry<DriverMode, Integer> mode : modes.entrySet()) {
+            BaseDriver.prewarm(BaseDriver.DEFAULT_BROWSER, mode.getKey(), mode.getValue());
+        }
+    }
+
+    /**
+     * Splits the scenarios into balanced shards and returns the given shard's part.
+     * Each scenario, longest first, goes to the shard with the least total duration so far.
+     * Every shard JVM computes the same plan from the same durations report.
+     */
+    private static Object[][] shard(Object[][] ordered, ScenarioDurations durations, int shardIndex, int shardCount) {
+        // Scenarios without history weigh as much as an average scenario
+        long known = 0;
+        int knownCount = 0;
+        for (Object[] scenario : ordered) {
+            long duration = durationOf(durations, scenario);
+            if (duration >= 0) {
+                known += duration;
+                knownCount++;
+            }
+        }
+        long average = knownCount == 0 ? 1 : Math.max(1, known / knownCount);
+
+        long[] load = new long[shardCount];
+        List<Object[]> selected = new ArrayList<>();
+        for (Object[] scenario : ordered) {
+            int target = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (load[i] < load[target]) {
+                    target = i;
+                }
+            }
+            long duration = durationOf(durations, scenario);
+            load[target] += duration < 0 ? average : duration;
+            if (target == shardIndex) {
+                selected.add(scenario);
+            }
+        }
+        System.out.println("Shard " + (shardIndex + 1) + "/" + shardCount + ": " + selected.size()
+                + " of " + ordered.length + " scenarios");
+        return selected.toArray(new Object[0][]);
+    }
+
+    private static long durationOf(ScenarioDurations durations, Object[] scenario) {
+        Pickle pickle = pickle(scenario);
+        return durations.durationOf(pickle.getUri(), pickle.getLine());
+    }
+
+    private static Pickle pickle(Object[] scenario) {
+        return ((PickleWrapper) scenario[0]).getPickle();
+    }
+}
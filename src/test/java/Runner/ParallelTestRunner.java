@@ -1,6 +1,5 @@
 package Runner;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
 
 @CucumberOptions(
@@ -8,12 +7,9 @@ import io.cucumber.testng.CucumberOptions;
         features = "src/test/resources/featureFiles",
         glue = "StepDefinitions",
         plugin = {
-                "html:target/cucumber-report",
-                "json:target/cucumber.json",
-                "pretty:target/cucumber-pretty.txt",
-                "usage:target/cucumber-usage.json",
-                "junit:target/cucumber-results.xml"
+                "Utilities.StreamingReportPlugin:target/cucumber-messages.ndjson",
+                "Utilities.MetricsPlugin:target/metrics"
         }
 )
-public class ParallelTestRunner extends AbstractTestNGCucumberTests {
+public class ParallelTestRunner extends BaseTestRunner {
 } 
\ No newline at end of file
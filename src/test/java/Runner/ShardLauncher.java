@@ -0,0 +1,156 @@
+package Runner;
+
+import Utilities.ReportGenerator;
+import Utilities.ReportMerger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShardLauncher runs the regression suite as several duration-balanced shards, each in
+ * its own forked JVM, and merges their reports when all shards are done.
+ *
+ * Shard i writes its Cucumber messages and rerun file to target/shards/shard-i and its
+ * console output to target/shards/shard-i/output.log. The merged reports replace the reports in target,
+ * including target/cucumber.json, so the next run balances on this run's durations.
+ *
+ * A shard whose TestNG run only had skipped tests (exit status bit 2) is judged by the merged
+ * report instead: failures queued for a rerun (-Drerun.attempts) show as skipped in TestNG,
+ * so the run only fails if scenarios are still failed or skipped in their final attempt.
+ * A shard without tests (bit 8, e.g. more shards than scenarios) is reported but does not
+ * fail the run. Any other exit code, such as a crashed JVM, fails the run.
+ *
+ * Options: -Dshard.count (default 2), -Dshard.jvmArgs (extra JVM arguments for the shards),
+ * -Dshard.sysProps (space separated name=value system properties for the shards).
+ * Other system properties given to the launcher JVM, such as -Dscenario.threads or
+ * -Ddriver.pool, are passed on to every shard as well. The sharded Maven profile starts the
+ * launcher in a new JVM that does not see Maven's -D properties, so there they have to go
+ * through -Dshard.sysProps.
+ *
+ * To shard across hosts instead, run ShardedTestRunner on each host with
+ * -Dshard.index and -Dshard.count, collect the shard directories and run ReportMerger.
+ */
+public class ShardLauncher {
+
+    private static final Path SHARDS_DIR = Paths.get("target", "shards");
+    private static final Path MERGED_DIR = Paths.get("target");
+
+    // TestNG exit status bits for a run with skipped tests and for a run without tests
+    private static final int HAS_SKIPPED = 2;
+    private static final int HAS_NO_TEST = 8;
+
+    // JVM and launcher properties that are not passed on to the shards
+    private static final List<String> LOCAL_PROPERTY_PREFIXES = Arrays.asList(
+            "java.", "jdk.", "sun.", "os.", "user.", "file.", "line.", "path.", "awt.", "native.",
+            "classworlds.", "maven.", "library.", "stdout.", "stderr.", "shard.");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int shardCount = Integer.getInteger("shard.count", 2);
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+
+        List<Process> processes = new ArrayList<>();
+        List<Path> shardDirs = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < shardCount; i++) {
+            Path shardDir = SHARDS_DIR.resolve("shard-" + i);
+            Files.createDirectories(shardDir);
+            shardDirs.add(shardDir);
+
+            List<String> command = new ArrayList<>();
+            command.add(javaBin);
+            command.addAll(forwardedProperties());
+            String jvmArgs = System.getProperty("shard.jvmArgs", "").trim();
+            if (!jvmArgs.isEmpty()) {
+                command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+            }
+            command.add("-Dshard.index=" + i);
+            command.add("-Dshard.count=" + shardCount);
+            command.add("-Dcucumber.plugin=Utilities.StreamingReportPlugin:" + shardDir.resolve(ReportGenerator.MESSAGES_FILE)
+                    + ",Utilities.MetricsPlugin:" + shardDir.resolve("metrics"));
+            command.add("-Drerun.file=" + shardDir.resolve("rerun.txt"));
+            // Reports are generated for all shards together once they are done
+            command.add("-Dreport.generate=false");
+            command.add("-cp");
+            command.add(classPath);
+            command.add("org.testng.TestNG");
+            command.add("-d");
+            command.add(shardDir.resolve("testng").toString());
+            command.add("-testclass");
+            command.add(ShardedTestRunner.class.getName());
+
+            File log = shardDir.resolve("output.log").toFile();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log)
+                    .start();
+            processes.add(process);
+            System.out.println("Started shard " + (i + 1) + "/" + shardCount + ", log: " + log);
+        }
+
+        int failedShards = 0;
+        int skippingShards = 0;
+        int emptyShards = 0;
+        for (int i = 0; i < processes.size(); i++) {
+            int exitCode = processes.get(i).waitFor();
+            System.out.println("Shard " + (i + 1) + "/" + shardCount + " finished with exit code " + exitCode);
+            if ((exitCode & ~(HAS_SKIPPED | HAS_NO_TEST)) != 0) {
+                failedShards++;
+                continue;
+            }
+            if ((exitCode & HAS_SKIPPED) != 0) {
+                skippingShards++;
+            }
+            if ((exitCode & HAS_NO_TEST) != 0) {
+                emptyShards++;
+            }
+        }
+
+        ReportGenerator.Totals totals = ReportMerger.merge(shardDirs, MERGED_DIR);
+        System.out.println("Merged reports of " + shardCount + " shards into " + MERGED_DIR.toAbsolutePath()
+                + " in " + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + "s: " + totals);
+
+        if (emptyShards > 0) {
+            System.out.println(emptyShards + " of " + shardCount + " shards had no scenarios to run");
+        }
+        if (failedShards > 0 || totals.failed > 0) {
+            System.err.println(failedShards + " of " + shardCount + " shards failed, final results: " + totals);
+            System.exit(1);
+        }
+        if (skippingShards > 0 && (totals.failed > 0 || totals.skipped > 0)) {
+            System.err.println(skippingShards + " of " + shardCount + " shards skipped tests, final results: " + totals);
+            System.exit(1);
+        }
+    }
+
+    private static List<String> forwardedProperties() {
+        List<String> forwarded = new ArrayList<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            boolean local = false;
+            for (String prefix : LOCAL_PROPERTY_PREFIXES) {
+                if (name.startsWith(prefix)) {
+                    local = true;
+                    break;
+                }
+            }
+            if (!local) {
+                forwarded.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        String sysProps = System.getProperty("shard.sysProps", "").trim();
+        if (!sysProps.isEmpty()) {
+            for (String property : sysProps.split("\\s+")) {
+                forwarded.add(property.startsWith("-D") ? property : "-D" + property);
+            }
+        }
+        return forwarded;
+    }
+}
@@ -0,0 +1,16 @@
+package Runner;
+
+import io.cucumber.testng.CucumberOptions;
+
+/**
+ * Runner for one shard of the regression suite, started by ShardLauncher.
+ * The report plugin is passed in with -Dcucumber.plugin so every shard writes
+ * its messages to its own directory.
+ */
+@CucumberOptions(
+        tags = "@Regression",
+        features = "src/test/resources/featureFiles",
+        glue = "StepDefinitions"
+)
+public class ShardedTestRunner extends BaseTestRunner {
+}
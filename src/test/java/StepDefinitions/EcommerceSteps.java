@@ -1,7 +1,8 @@
 package StepDefinitions;
 
 import Pages.EcommercePage;
-import Utilities.BaseDriver;
+import Pages.PageRegistry;
+import Utilities.StubServer;
 import io.cucumber.java.After;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
@@ -9,26 +10,26 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 
 public class EcommerceSteps {
-    EcommercePage ecommercePage = new EcommercePage();
+    private static final String SHOP_URL = System.getProperty("app.shop.url", "https://your-ecommerce-website.com");
 
     @Given("User navigates to the e-commerce website")
     public void userNavigatesToTheECommerceWebsite() {
-        BaseDriver.getDriver().get("https://your-ecommerce-website.com");
+        ecommercePage().open(StubServer.url(SHOP_URL));
     }
 
     @And("User accepts cookies if present")
     public void userAcceptsCookiesIfPresent() {
-        ecommercePage.acceptCookies();
+        ecommercePage().acceptCookies();
     }
 
     @When("User browses through {string} category")
     public void userBrowsesThroughCategory(String categoryName) {
-        ecommercePage.navigateToCategory(categoryName);
+        ecommercePage().navigateToCategory(categoryName);
     }
 
     @And("User adds {int} random items from {string} to cart")
     public void userAddsRandomItemsFromCategoryToCart(int count, String category) {
-        ecommercePage.addRandomItemsToCart(count);
+        ecommercePage().addRandomItemsToCart(count);
     }
 
     @And("User notes down the prices of added {string} items")
@@ -38,46 +39,53 @@ public class EcommerceSteps {
 
     @When("User navigates to shopping cart")
     public void userNavigatesToShoppingCart() {
-        ecommercePage.navigateToCart();
+        ecommercePage().navigateToCart();
     }
 
     @Then("User should see all {int} items in the cart")
     public void userShouldSeeAllItemsInTheCart(int expectedCount) {
-        ecommercePage.verifyCartItemCount(expectedCount);
+        ecommercePage().verifyCartItemCount(expectedCount);
     }
 
     @And("User should verify that the cart total matches the sum of all noted prices")
     public void userShouldVerifyThatTheCartTotalMatchesTheSumOfAllNotedPrices() {
-        ecommercePage.verifyCartTotal();
+        ecommercePage().verifyCartTotal();
     }
 
     @And("User should verify that each item's quantity is {int}")
     public void userShouldVerifyThatEachItemSQuantityIs(int quantity) {
-        ecommercePage.verifyItemQuantities();
+        ecommercePage().verifyItemQuantities();
     }
 
     @And("User should verify that each item's subtotal matches its price")
     public void userShouldVerifyThatEachItemSSubtotalMatchesItsPrice() {
-        ecommercePage.verifyItemSubtotals();
+        ecommercePage().verifyItemSubtotals();
     }
 
     @And("User should verify that shipping cost is calculated correctly")
     public void userShouldVerifyThatShippingCostIsCalculatedCorrectly() {
-        ecommercePage.verifyShippingCost();
+        ecommercePage().verifyShippingCost();
     }
 
     @And("User should verify that tax is calculated correctly")
     public void userShouldVerifyThatTaxIsCalculatedCorrectly() {
-        ecommercePage.verifyTaxAmount();
+        ecommercePage().verifyTaxAmount();
     }
 
     @And("User should verify that the final total includes all items, shipping, and tax")
     public void userShouldVerifyThatTheFinalTotalIncludesAllItemsShippingAndTax() {
-        ecommercePage.verifyFinalTotal();
+        ecommercePage().verifyFinalTotal();
     }
 
     @After
     public void cleanup() {
-        ecommercePage.cleanupDriver();
+        ecommercePage().cleanupDriver();
     }
-} 
\ No newline at end of file
+
+    /**
+     * @return The scenario's EcommercePage, created on first use
+     */
+    private EcommercePage ecommercePage() {
+        return PageRegistry.get(EcommercePage.class);
+    }
+}
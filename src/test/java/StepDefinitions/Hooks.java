@@ -0,0 +1,110 @@
+package StepDefinitions;
+
+import Pages.ElementCache;
+import Pages.PageRegistry;
+import Utilities.BaseDriver;
+import Utilities.DBConnectionPool;
+import Utilities.DriverBinaries;
+import Utilities.DriverMode;
+import Utilities.DriverPool;
+import Utilities.DriverPrewarmer;
+import Utilities.Metrics;
+import Utilities.NetworkBlocker;
+import Utilities.NetworkRules;
+import Utilities.PageLoad;
+import Utilities.Readiness;
+import Utilities.ResultSink;
+import Utilities.SessionCache;
+import Utilities.StubServer;
+import Utilities.TestDataCache;
+import Utilities.WaitPolicy;
+import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+
+import java.util.Arrays;
+
+/**
+ * Run-level hooks shared by all step definition classes.
+ */
+public class Hooks {
+
+    /**
+     * Selects headed, headless or HtmlUnit mode from the scenario's @headed, @headless
+     * or @htmlunit tag, the request blocking rules of its tags and whether it opts out of
+     * the session cache (@noSessionCache). Runs before any step creates a page object and
+     * with it the driver.
+     */
+    @Before(order = 0)
+    public void selectDriverMode(Scenario scenario) {
+        BaseDriver.setDriverMode(DriverMode.forTags(scenario.getSourceTagNames()));
+        BaseDriver.setNetworkRules(NetworkRules.forTags(scenario.getSourceTagNames()));
+        SessionCache.setOptedOut(scenario.getSourceTagNames().contains("@noSessionCache"));
+    }
+
+    /**
+     * Adds the scenario's blocked requests and bytes to the report, and records the page-load
+     * time saved on its last page. Runs before the page object cleanup hooks quit or release the driver.
+     */
+    @After(order = 15000)
+    public void recordPageStats(Scenario scenario) {
+        PageLoad.finish();
+        String summary = NetworkBlocker.finishScenario();
+        if (summary != null) {
+            scenario.log(summary);
+        }
+    }
+
+    /**
+     * Runs before the page object cleanup hooks (higher order runs first for @After)
+     * so a failed scenario's pooled browser is evicted rather than reused.
+     */
+    @After(order = 20000)
+    public void flagFailedDriver(Scenario scenario) {
+        if (scenario.isFailed()) {
+            BaseDriver.markDriverFailed();
+        }
+    }
+
+    /**
+     * A step may have navigated or changed the page, so cached elements are revalidated on next use.
+     */
+    @AfterStep
+    public void invalidateElementCache() {
+        ElementCache.invalidate();
+    }
+
+    /**
+     * Runs after all other @After hooks, which may still use the scenario's page objects.
+     */
+    @After(order = 0)
+    public void clearPages() {
+        PageRegistry.clear();
+        ElementCache.clear();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        Metrics.writeRunSummary(Arrays.asList(
+                DriverBinaries.statsSummary(),
+                DriverPrewarmer.statsSummary(),
+                DriverPool.statsSummary(),
+                Readiness.statsSummary(),
+                WaitPolicy.statsSummary(),
+                ElementCache.statsSummary(),
+                NetworkBlocker.statsSummary(),
+                StubServer.statsSummary(),
+                PageLoad.statsSummary(),
+                SessionCache.statsSummary(),
+                TestDataCache.statsSummary(),
+                DBConnectionPool.statsSummary()));
+        NetworkBlocker.saveSizes();
+        DriverPrewarmer.shutdown();
+        DriverPool.shutdown();
+        ResultSink.closeAll();
+        DBConnectionPool.shutdown();
+        StubServer.shutdown();
+    }
+}
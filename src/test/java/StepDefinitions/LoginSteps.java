@@ -1,9 +1,11 @@
 package StepDefinitions;
 
 import Pages.DialogueContent;
+import Pages.PageRegistry;
 import Pages.Parent;
-import Utilities.ExcelUtility;
-import Utilities.BaseDriver;
+import Utilities.TestDataCache;
+import Utilities.SessionCache;
+import Utilities.StubServer;
 import io.cucumber.java.After;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.When;
@@ -13,50 +15,70 @@ import org.testng.Assert;
 import java.util.List;
 
 public class LoginSteps {
-    DialogueContent dialogueContent = new DialogueContent();
+    private static final String LOGIN_URL = System.getProperty("app.login.url", "https://opensource-demo.orangehrmlive.com");
     List<List<String>> loginData;
 
     @Given("User navigates to the login page")
     public void userNavigatesToTheLoginPage() {
         // Navigate to login page URL
-        BaseDriver.getDriver().get("https://opensource-demo.orangehrmlive.com");
+        dialogueContent().open(StubServer.url(LOGIN_URL));
+    }
+
+    @Given("User is logged in")
+    public void userIsLoggedIn() {
+        // Log in with the first valid credentials, restoring a cached session when there is one
+        List<String> credentials = TestDataCache.getListData("src/test/resources/testData.xls", "LoginData", 2).get(0);
+        String url = StubServer.url(LOGIN_URL);
+        SessionCache.login(url, credentials.get(0),
+                () -> {
+                    dialogueContent().open(url);
+                    dialogueContent().login(credentials.get(0), credentials.get(1));
+                },
+                driver -> dialogueContent().isLoggedIn());
     }
 
     @When("User enters username and password from Excel")
     public void userEntersUsernameAndPasswordFromExcel() {
         // Read valid credentials from Excel
-        loginData = ExcelUtility.getListData("src/test/resources/testData.xls", "LoginData", 2);
-        dialogueContent.findAndSend("usernameInput",loginData.get(0).get(0));
-        dialogueContent.findAndSend("passwordInput",loginData.get(0).get(1));
+        loginData = TestDataCache.getListData("src/test/resources/testData.xls", "LoginData", 2);
+        dialogueContent().findAndSend("usernameInput",loginData.get(0).get(0));
+        dialogueContent().findAndSend("passwordInput",loginData.get(0).get(1));
     }
 
     @When("User enters invalid username and password from Excel")
     public void userEntersInvalidUsernameAndPasswordFromExcel() {
         // Read invalid credentials from Excel
-        loginData = ExcelUtility.getListData("src/test/resources/testData.xls", "LoginData", 2);
-//        dialogueContent.findAndSend("usernameInput", loginData.get(1).get(0));
-        dialogueContent.findAndSend("usernameInput", "Admin");
-        dialogueContent.findAndSend("usernameInput", "admin12");
+        loginData = TestDataCache.getListData("src/test/resources/testData.xls", "LoginData", 2);
+//        dialogueContent().findAndSend("usernameInput", loginData.get(1).get(0));
+        dialogueContent().findAndSend("usernameInput", "Admin");
+        dialogueContent().findAndSend("usernameInput", "admin12");
     }
 
     @When("User clicks on login button")
     public void userClicksOnLoginButton() {
-        dialogueContent.findAndClick("loginButton");
+        dialogueContent().findAndClick("loginButton");
     }
 
     @Then("User should be logged in successfully")
     public void userShouldBeLoggedInSuccessfully() {
-        Parent.waitUntilVisible(dialogueContent.dashboardText);
-        Assert.assertEquals(dialogueContent.dashboardText.getText(), "Dashboard");
+        Parent.waitUntilVisible(dialogueContent().dashboardText);
+        Assert.assertEquals(dialogueContent().dashboardText.getText(), "Dashboard");
     }
 
     @Then("User should see error message")
     public void userShouldSeeErrorMessage() {
-        dialogueContent.verifyErrorMessage("Invalid credentials");
+        dialogueContent().verifyErrorMessage("Invalid credentials");
     }
 
     @After
     public void cleanup() {
-        dialogueContent.cleanupDriver();
+        dialogueContent().cleanupDriver();
+    }
+
+    /**
+     * @return The scenario's DialogueContent, created on first use
+     */
+    private DialogueContent dialogueContent() {
+        return PageRegistry.get(DialogueContent.class);
     }
-} 
\ No newline at end of file
+}
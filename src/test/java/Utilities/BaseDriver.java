@@ -1,25 +1,57 @@
 package Utilities;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
 import org.openqa.selenium.safari.SafariDriver;
-import Pages.Parent;
+import org.openqa.selenium.safari.SafariOptions;
+
+import java.time.Duration;
 
 /**
  * BaseDriver class manages WebDriver instances using ThreadLocal for parallel test execution.
  * This ensures thread safety when running tests in parallel.
+ * Run with -Ddriver.pool=true to lease browsers from DriverPool instead of
+ * launching a new one for every scenario.
+ * Each thread also has a DriverMode (headed, headless or HtmlUnit), selected per scenario
+ * by tag in Hooks.
+ * Browsers can be launched ahead of demand with prewarm; getDriver takes one of those
+ * before launching its own.
+ * Each thread also has NetworkRules, applied by NetworkBlocker to every driver it gets.
  */
 public class BaseDriver {
     
     // ThreadLocal WebDriver instance for parallel execution support
     private static ThreadLocal<WebDriver> threadDriver = new ThreadLocal<>();
     
+    /** Browser of threads that did not call setBrowser */
+    public static final String DEFAULT_BROWSER = "chrome";
+
     // ThreadLocal browser name for multi-browser support
     public static ThreadLocal<String> threadBrowserName = new ThreadLocal<>();
 
+    // ThreadLocal driver mode, selected per scenario
+    private static ThreadLocal<DriverMode> threadDriverMode = ThreadLocal.withInitial(() -> DriverMode.DEFAULT);
+
+    // ThreadLocal request blocking rules, selected per scenario
+    private static ThreadLocal<NetworkRules> threadNetworkRules = ThreadLocal.withInitial(() -> NetworkRules.NONE);
+
+    // ThreadLocal pooled session, only used when the driver pool is enabled
+    private static ThreadLocal<DriverPool.Session> threadSession = new ThreadLocal<>();
+
+    // Lease browsers from DriverPool instead of launching and quitting one per scenario
+    private static final boolean POOLED = Boolean.getBoolean("driver.pool");
+
+    // Window size of headless browsers, width,height
+    private static final String VIEWPORT = System.getProperty("driver.viewport", "1280,800");
+
     /**
      * Gets the WebDriver instance for the current thread.
      * If no driver exists, creates a new one based on the specified browser.
@@ -30,53 +62,185 @@ public class BaseDriver {
     public static WebDriver getDriver() {
         // Set default browser to Chrome if not specified
         if (threadBrowserName.get() == null) {
-            threadBrowserName.set("chrome");
+            threadBrowserName.set(DEFAULT_BROWSER);
         }
 
         // Create new driver instance if none exists for the current thread
         if (threadDriver.get() == null) {
-            switch (threadBrowserName.get().toLowerCase()) {
-                case "chrome":
-                    WebDriverManager.chromedriver().setup();
-                    threadDriver.set(new ChromeDriver());
-                    break;
-
-                case "firefox":
-                    WebDriverManager.firefoxdriver().setup();
-                    threadDriver.set(new FirefoxDriver());
-                    break;
-
-                case "edge":
-                    WebDriverManager.edgedriver().setup();
-                    threadDriver.set(new EdgeDriver());
-                    break;
-
-                case "safari":
-                    // Safari doesn't require WebDriverManager setup
-                    threadDriver.set(new SafariDriver());
-                    break;
-
-                default:
-                    throw new IllegalArgumentException("Unsupported browser: " + threadBrowserName.get());
+            if (POOLED) {
+                DriverPool.Session session = DriverPool.lease(threadBrowserName.get().toLowerCase(), threadDriverMode.get());
+                threadSession.set(session);
+                threadDriver.set(session.getDriver());
+            } else {
+                String browser = threadBrowserName.get().toLowerCase();
+                WebDriver warm = DriverPrewarmer.take(browser, threadDriverMode.get());
+                threadDriver.set(warm != null ? warm : createDriver(browser, threadDriverMode.get()));
             }
+            NetworkBlocker.attach(threadDriver.get(), threadNetworkRules.get());
         }
 
         return threadDriver.get();
     }
 
+    /**
+     * Starts launching browsers of one driver mode in the background, so the first getDriver()
+     * of a scenario thread in that mode does not wait for a cold browser. Returns immediately.
+     * In pooled mode no more than the pool size is launched, the rest would never be leased.
+     *
+     * @param browserName Name of the browser (chrome, firefox, edge, safari)
+     * @param mode Headed, headless or HtmlUnit
+     * @param sessions Number of browsers to launch, typically the scenarios of that mode that start first
+     */
+    public static void prewarm(String browserName, DriverMode mode, int sessions) {
+        int count = POOLED ? Math.min(sessions, DriverPool.MAX_SESSIONS) : sessions;
+        DriverPrewarmer.start(browserName.toLowerCase(), mode, count);
+    }
+
+    /**
+     * Creates a new WebDriver instance for the given browser and mode.
+     *
+     * @param browserName Name of the browser (chrome, firefox, edge, safari)
+     * @param mode Headed, headless or HtmlUnit
+     * @return New WebDriver instance
+     */
+    static WebDriver createDriver(String browserName, DriverMode mode) {
+        WebDriver driver;
+        try {
+            driver = launch(browserName, mode);
+        } catch (SessionNotCreatedException e) {
+            // The cached driver may no longer match an updated browser, look it up again once
+            if (mode == DriverMode.HTMLUNIT || !DriverBinaries.invalidate(browserName)) {
+                throw e;
+            }
+            driver = launch(browserName, mode);
+        }
+        Readiness.register(driver);
+        return driver;
+    }
+
+    private static WebDriver launch(String browserName, DriverMode mode) {
+        if (mode == DriverMode.HTMLUNIT) {
+            // In-process browser without JavaScript, no driver binary needed
+            return new HtmlUnitDriver(false);
+        }
+        boolean headless = mode == DriverMode.HEADLESS;
+
+        switch (browserName) {
+            case "chrome":
+                DriverBinaries.resolve(browserName);
+                ChromeOptions chromeOptions = new ChromeOptions();
+                chromeOptions.setPageLoadStrategy(PageLoad.STRATEGY);
+                if (headless) {
+                    chromeOptions.addArguments(headlessChromiumArguments());
+                }
+                return new ChromeDriver(chromeOptions);
+
+            case "firefox":
+                DriverBinaries.resolve(browserName);
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                firefoxOptions.setPageLoadStrategy(PageLoad.STRATEGY);
+                if (headless) {
+                    String[] size = VIEWPORT.split(",");
+                    firefoxOptions.addArguments("-headless", "--width=" + size[0].trim(), "--height=" + size[1].trim());
+                    firefoxOptions.addPreference("extensions.autoDisableScopes", 15);
+                    firefoxOptions.addPreference("layers.acceleration.disabled", true);
+                }
+                return new FirefoxDriver(firefoxOptions);
+
+            case "edge":
+                DriverBinaries.resolve(browserName);
+                EdgeOptions edgeOptions = new EdgeOptions();
+                edgeOptions.setPageLoadStrategy(PageLoad.STRATEGY);
+                if (headless) {
+                    edgeOptions.addArguments(headlessChromiumArguments());
+                }
+                return new EdgeDriver(edgeOptions);
+
+            case "safari":
+                // Safari doesn't require a driver binary, and has no headless mode
+                if (headless) {
+                    System.err.println("Safari has no headless mode, starting a normal window");
+                }
+                SafariOptions safariOptions = new SafariOptions();
+                safariOptions.setPageLoadStrategy(PageLoad.STRATEGY);
+                return new SafariDriver(safariOptions);
+
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browserName);
+        }
+    }
+
+    private static String[] headlessChromiumArguments() {
+        return new String[]{
+                "--headless=new",
+                "--window-size=" + VIEWPORT,
+                "--disable-gpu",
+                "--disable-extensions",
+                "--disable-dev-shm-usage",
+                "--no-first-run",
+                "--no-default-browser-check",
+                "--disable-background-networking",
+                "--mute-audio"
+        };
+    }
+
     /**
      * Closes the WebDriver instance and cleans up resources.
-     * Waits for 5 seconds before closing the driver.
+     * Waits up to 5 seconds for pending requests to finish before closing the driver.
+     * In pooled mode the session is returned to DriverPool instead of being quit.
      */
     public static void quitDriver() {
-        Parent.delay(5);
-
         if (threadDriver.get() != null) {
-            threadDriver.get().quit();
-            WebDriver driver = threadDriver.get();
-            driver = null;
-            threadDriver.set(driver);
+            Readiness.awaitNetworkIdle(threadDriver.get(), Duration.ofSeconds(5));
+
+            if (threadSession.get() != null) {
+                DriverPool.release(threadSession.get());
+                threadSession.remove();
+            } else {
+                threadDriver.get().quit();
+            }
+            threadDriver.remove();
+        }
+    }
+
+    /**
+     * Marks the current thread's pooled session as failed so it is evicted on release
+     * instead of being handed to another scenario. Has no effect outside pooled mode.
+     */
+    public static void markDriverFailed() {
+        if (threadSession.get() != null) {
+            threadSession.get().markFailed();
+        }
+    }
+
+    /**
+     * Sets the driver mode for the current thread's next driver.
+     * A driver that is already open keeps its mode until it is quit.
+     *
+     * @param mode Headed, headless or HtmlUnit
+     */
+    public static void setDriverMode(DriverMode mode) {
+        threadDriverMode.set(mode);
+    }
+
+    /**
+     * Sets the request blocking rules for the current thread's next driver.
+     *
+     * @param rules Rules of the scenario
+     */
+    public static void setNetworkRules(NetworkRules rules) {
+        threadNetworkRules.set(rules);
+    }
+
+    /**
+     * @param driver WebDriver to check
+     * @return true if scripts can be executed in the driver, false for HtmlUnit with JavaScript disabled
+     */
+    public static boolean supportsJavascript(WebDriver driver) {
+        if (driver instanceof HtmlUnitDriver) {
+            return ((HtmlUnitDriver) driver).isJavascriptEnabled();
         }
+        return driver instanceof JavascriptExecutor;
     }
 
     /**
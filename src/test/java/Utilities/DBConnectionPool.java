@@ -0,0 +1,243 @@
+package Utilities;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DBConnectionPool hands out JDBC connections from a bounded pool instead of opening
+ * a new connection for every query. Connections are validated when borrowed, and each
+ * one caches its prepared statements so repeated parameterized queries skip the prepare.
+ *
+ * Connection settings: -Ddb.url, -Ddb.user, -Ddb.password. For a local run without a
+ * MySQL server use an embedded H2 database in MySQL mode, e.g.
+ * -Ddb.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1 -Ddb.user=sa -Ddb.password=
+ * Tuning: -Ddb.pool.size, -Ddb.pool.borrowTimeout (seconds), -Ddb.pool.statementCache.
+ */
+public class DBConnectionPool {
+
+    // Replace these with your actual database credentials or pass them as system properties
+    private static final String URL = System.getProperty("db.url", "jdbc:mysql://your-database-url:port/database-name");
+    private static final String USER = System.getProperty("db.user", "your-username");
+    private static final String PASSWORD = System.getProperty("db.password", "your-password");
+
+    private static final int MAX_CONNECTIONS = Integer.getInteger("db.pool.size", 4);
+    private static final long BORROW_TIMEOUT_SECONDS = Long.getLong("db.pool.borrowTimeout", 30L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCache", 32);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private static final Semaphore permits = new Semaphore(MAX_CONNECTIONS, true);
+    private static final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    private static final AtomicInteger activeCount = new AtomicInteger();
+    private static final LongAdder borrowCount = new LongAdder();
+    private static final LongAdder createdCount = new LongAdder();
+    private static final LongAdder discardedCount = new LongAdder();
+    private static final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * A pooled connection with its own plain statement and prepared statement cache.
+     * Only used by one thread at a time.
+     */
+    public static class PooledConnection {
+        private final Connection connection;
+        private Statement statement;
+        private boolean broken;
+
+        // Least recently used statements are closed when the cache is full
+        private final Map<String, PreparedStatement> preparedStatements =
+                new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > STATEMENT_CACHE_SIZE) {
+                            closeQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        /**
+         * @return Statement reused for plain queries on this connection
+         */
+        public Statement statement() throws SQLException {
+            if (statement == null || statement.isClosed()) {
+                statement = connection.createStatement();
+            }
+            return statement;
+        }
+
+        /**
+         * @param sql Parameterized SQL
+         * @return Cached prepared statement for this SQL, with parameters cleared
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement prepared = preparedStatements.get(sql);
+            if (prepared == null || prepared.isClosed()) {
+                prepared = connection.prepareStatement(sql);
+                preparedStatements.put(sql, prepared);
+            } else {
+                prepared.clearParameters();
+            }
+            return prepared;
+        }
+
+        /**
+         * Marks the connection as unusable so it is closed instead of returned to the pool.
+         */
+        public void markBroken() {
+            broken = true;
+        }
+
+        /**
+         * Marks the connection as unusable if the error says the connection itself failed.
+         * Errors of the statement, e.g. an SQL syntax error, leave the connection in the pool.
+         *
+         * @param e Error raised while using this connection
+         */
+        public void markBrokenIfFatal(SQLException e) {
+            String state = e.getSQLState();
+            if (e instanceof SQLRecoverableException || e instanceof SQLNonTransientConnectionException
+                    || e instanceof SQLTransientConnectionException || (state != null && state.startsWith("08"))) {
+                broken = true;
+            }
+        }
+
+        private void close() {
+            for (PreparedStatement prepared : preparedStatements.values()) {
+                closeQuietly(prepared);
+            }
+            preparedStatements.clear();
+            closeQuietly(statement);
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing database connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Borrows a validated connection, opening a new one if no idle connection is usable.
+     * Blocks while all connections are in use.
+     *
+     * @return Borrowed connection, to be given back with release
+     */
+    public static PooledConnection borrow() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new SQLException("Timed out after " + BORROW_TIMEOUT_SECONDS + "s waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        waitNanos.add(System.nanoTime() - start);
+        borrowCount.increment();
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    activeCount.incrementAndGet();
+                    return pooled;
+                }
+                discardedCount.increment();
+                pooled.close();
+            }
+
+            pooled = new PooledConnection(DriverManager.getConnection(URL, USER, PASSWORD));
+            createdCount.increment();
+            activeCount.incrementAndGet();
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool, or closes it if it was marked broken.
+     *
+     * @param pooled Connection returned by borrow
+     */
+    public static void release(PooledConnection pooled) {
+        activeCount.decrementAndGet();
+        try {
+            if (pooled.broken) {
+                discardedCount.increment();
+                pooled.close();
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections.
+     */
+    public static void shutdown() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.close();
+        }
+    }
+
+    public static int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public static int getIdleCount() {
+        return idle.size();
+    }
+
+    public static long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the pool metrics.
+     */
+    public static String statsSummary() {
+        return "DBConnectionPool: active=" + getActiveCount()
+                + ", idle=" + getIdleCount()
+                + ", borrows=" + borrowCount.sum()
+                + ", created=" + createdCount.sum()
+                + ", discarded=" + discardedCount.sum()
+                + ", waitMs=" + TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    }
+
+    private static void closeQuietly(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package Utilities;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DBRow gives typed access to the current row of a streamed query.
+ * It is a view on the open cursor: read the values you need while handling the row,
+ * the same object shows the next row once iteration moves on.
+ * Column indexes start at 1, as in JDBC. Read errors are thrown as IllegalStateException.
+ */
+public class DBRow {
+
+    private final ResultSet resultSet;
+    private final ResultSetMetaData metaData;
+    private final int columnCount;
+
+    DBRow(ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+        this.metaData = resultSet.getMetaData();
+        this.columnCount = metaData.getColumnCount();
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public String getColumnLabel(int column) {
+        try {
+            return metaData.getColumnLabel(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public String getString(int column) {
+        try {
+            return resultSet.getString(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public String getString(String column) {
+        try {
+            return resultSet.getString(column);
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Integer getInt(int column) {
+        try {
+            int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Integer getInt(String column) {
+        try {
+            int value = resultSet.getInt(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Long getLong(int column) {
+        try {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Long getLong(String column) {
+        try {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Double getDouble(int column) {
+        try {
+            double value = resultSet.getDouble(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Double getDouble(String column) {
+        try {
+            double value = resultSet.getDouble(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    public BigDecimal getBigDecimal(int column) {
+        try {
+            return resultSet.getBigDecimal(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public BigDecimal getBigDecimal(String column) {
+        try {
+            return resultSet.getBigDecimal(column);
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Boolean getBoolean(int column) {
+        try {
+            boolean value = resultSet.getBoolean(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    /**
+     * @return Column value, or null if the column is SQL NULL
+     */
+    public Boolean getBoolean(String column) {
+        try {
+            boolean value = resultSet.getBoolean(column);
+            return resultSet.wasNull() ? null : value;
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    public Date getDate(int column) {
+        try {
+            return resultSet.getDate(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public Date getDate(String column) {
+        try {
+            return resultSet.getDate(column);
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    public Timestamp getTimestamp(int column) {
+        try {
+            return resultSet.getTimestamp(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public Timestamp getTimestamp(String column) {
+        try {
+            return resultSet.getTimestamp(column);
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    public Object getObject(int column) {
+        try {
+            return resultSet.getObject(column);
+        } catch (SQLException e) {
+            throw failure(String.valueOf(column), e);
+        }
+    }
+
+    public Object getObject(String column) {
+        try {
+            return resultSet.getObject(column);
+        } catch (SQLException e) {
+            throw failure(column, e);
+        }
+    }
+
+    /**
+     * Copies the current row as strings, the format getListData returns.
+     *
+     * @return Column values converted with getString
+     */
+    public List<String> toStringList() {
+        List<String> row = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            row.add(getString(i));
+        }
+        return row;
+    }
+
+    private static IllegalStateException failure(String column, SQLException e) {
+        return new IllegalStateException("Error reading column " + column + ": " + e.getMessage(), e);
+    }
+}
@@ -2,33 +2,42 @@ package Utilities;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * DBUtility class provides reusable methods for database operations.
  * It uses JDBC to connect to MySQL database and execute queries.
+ * Connections come from DBConnectionPool. Between DBConnectionOpen and DBConnectionClose
+ * the current thread holds one and its queries run on it; otherwise each query borrows a
+ * connection until its rows are read. Either way parallel scenarios never share a
+ * connection or statement. Large results can be read row by row with streamQuery or forEachRow.
  */
 public class DBUtility {
-    
-    // Database connection objects
-    private static Connection connection;
-    private static Statement statement;
+
+    // Rows fetched per round trip by streamQuery
+    private static final int FETCH_SIZE = Integer.getInteger("db.fetchSize", 1000);
+
+    // Connection borrowed by the current thread, and whether a query's cursor is open on it
+    private static final ThreadLocal<DBConnectionPool.PooledConnection> threadConnection = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> threadConnectionBusy = ThreadLocal.withInitial(() -> false);
 
     /**
-     * Establishes a connection to the MySQL database.
-     * Uses the provided credentials to connect to the specified database.
+     * Borrows a database connection from the pool for the current thread.
+     * Connection settings are configured on DBConnectionPool.
      */
     public static void DBConnectionOpen() {
-        // Replace these with your actual database credentials
-        String url = "jdbc:mysql://your-database-url:port/database-name";
-        String user = "your-username";
-        String password = "your-password";
-        
+        if (threadConnection.get() != null) {
+            return;
+        }
         try {
-            // Establish database connection
-            connection = DriverManager.getConnection(url, user, password);
-            // Create statement object for executing queries
-            statement = connection.createStatement();
+            threadConnection.set(DBConnectionPool.borrow());
         } catch (SQLException e) {
             System.err.println("Database connection failed: " + e.getMessage());
             e.printStackTrace();
@@ -36,69 +45,215 @@ public class DBUtility {
     }
 
     /**
-     * Closes the database connection.
+     * Returns the current thread's database connection to the pool.
      * Should be called after all database operations are completed.
      */
     public static void DBConnectionClose() {
-        try {
-            if (connection != null) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
-            e.printStackTrace();
+        DBConnectionPool.PooledConnection pooled = threadConnection.get();
+        if (pooled != null) {
+            threadConnection.remove();
+            threadConnectionBusy.remove();
+            DBConnectionPool.release(pooled);
         }
     }
 
     /**
      * Executes a SQL query and returns the results as a List of Lists.
      * Each inner List represents a row from the result set.
-     * 
+     *
      * @param query The SQL query to execute
      * @return List of Lists containing the query results
      */
     public static List<List<String>> getListData(String query) {
-        // Open database connection
-        DBConnectionOpen();
-        
+        return getListData(query, new Object[0]);
+    }
+
+    /**
+     * Executes a parameterized SQL query and returns the results as a List of Lists.
+     * The prepared statement is cached on the pooled connection and reused by later calls.
+     *
+     * @param query The SQL query to execute, with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return List of Lists containing the query results
+     */
+    public static List<List<String>> getListData(String query, Object... params) {
         // Initialize return list
         List<List<String>> returnList = new ArrayList<>();
 
+        try (Stream<DBRow> rows = streamQuery(query, params)) {
+            // Copy each row's columns as strings
+            rows.forEach(row -> returnList.add(row.toStringList()));
+        } catch (SQLException | IllegalStateException e) {
+            System.err.println("Error executing query: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return returnList;
+    }
+
+    /**
+     * Executes a query and passes each row to the callback as it is read from the cursor,
+     * without collecting the result set in memory.
+     *
+     * @param query The SQL query to execute, with ? placeholders
+     * @param rowCallback Called once per row, in order
+     * @param params Values for the placeholders, in order
+     */
+    public static void forEachRow(String query, Consumer<DBRow> rowCallback, Object... params) throws SQLException {
+        try (Stream<DBRow> rows = streamQuery(query, params)) {
+            rows.forEach(rowCallback);
+        }
+    }
+
+    /**
+     * Executes a query and returns its rows as a lazily consumed stream using the
+     * configured fetch size (-Ddb.fetchSize). The stream holds an open cursor, and a pooled
+     * connection unless the thread has one open, until it is closed or fully consumed;
+     * use try-with-resources.
+     *
+     * @param query The SQL query to execute, with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return Stream of rows
+     */
+    public static Stream<DBRow> streamQuery(String query, Object... params) throws SQLException {
+        return streamQuery(FETCH_SIZE, query, params);
+    }
+
+    /**
+     * Executes a query and returns its rows as a lazily consumed stream.
+     * Note that MySQL Connector/J only streams with a fetch size of Integer.MIN_VALUE,
+     * or with useCursorFetch=true in the connection URL.
+     *
+     * @param fetchSize Rows the driver fetches per round trip
+     * @param query The SQL query to execute, with ? placeholders
+     * @param params Values for the placeholders, in order
+     * @return Stream of rows
+     */
+    public static Stream<DBRow> streamQuery(int fetchSize, String query, Object... params) throws SQLException {
+        // The thread's open connection, unless another cursor is still reading from it
+        DBConnectionPool.PooledConnection pooled = threadConnection.get();
+        boolean borrowed = pooled == null || threadConnectionBusy.get();
+        if (borrowed) {
+            pooled = DBConnectionPool.borrow();
+        } else {
+            threadConnectionBusy.set(true);
+        }
+        ResultSet rs;
+        DBRow row;
         try {
-            // Execute the query
-            ResultSet rs = statement.executeQuery(query);
-            
-            // Get metadata about the result set
-            ResultSetMetaData rsmd = rs.getMetaData();
-            int columnCount = rsmd.getColumnCount();
-
-            // Process each row in the result set
-            while (rs.next()) {
-                List<String> rowList = new ArrayList<>();
-                
-                // Get each column's value in the current row
-                for (int i = 1; i <= columnCount; i++) {
-                    rowList.add(rs.getString(i));
+            Statement statement;
+            if (params.length == 0) {
+                statement = pooled.statement();
+                statement.setFetchSize(fetchSize);
+                rs = statement.executeQuery(query);
+            } else {
+                PreparedStatement prepared = pooled.prepare(query);
+                prepared.setFetchSize(fetchSize);
+                for (int i = 0; i < params.length; i++) {
+                    prepared.setObject(i + 1, params[i]);
                 }
-                
-                returnList.add(rowList);
+                rs = prepared.executeQuery();
             }
+            row = new DBRow(rs);
         } catch (SQLException e) {
-            System.err.println("Error executing query: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            // Always close the connection
-            DBConnectionClose();
+            pooled.markBrokenIfFatal(e);
+            giveBack(pooled, borrowed);
+            throw e;
+        } catch (RuntimeException e) {
+            giveBack(pooled, borrowed);
+            throw e;
         }
 
-        return returnList;
+        Cursor cursor = new Cursor(pooled, borrowed, rs, row);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Releases a query's connection: back to the pool if it was borrowed for the query,
+     * otherwise back to the thread that holds it.
+     */
+    private static void giveBack(DBConnectionPool.PooledConnection pooled, boolean borrowed) {
+        if (borrowed) {
+            DBConnectionPool.release(pooled);
+        } else {
+            threadConnectionBusy.set(false);
+        }
+    }
+
+    /**
+     * Iterates an open result set and releases it, and its connection, exactly once.
+     */
+    private static class Cursor implements Iterator<DBRow> {
+        private final DBConnectionPool.PooledConnection pooled;
+        private final boolean borrowed;
+        private final ResultSet rs;
+        private final DBRow row;
+        private Boolean hasRow;
+        private boolean closed;
+
+        Cursor(DBConnectionPool.PooledConnection pooled, boolean borrowed, ResultSet rs, DBRow row) {
+            this.pooled = pooled;
+            this.borrowed = borrowed;
+            this.rs = rs;
+            this.row = row;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (hasRow == null) {
+                try {
+                    hasRow = rs.next();
+                } catch (SQLException e) {
+                    pooled.markBrokenIfFatal(e);
+                    close();
+                    throw new IllegalStateException("Error reading query results: " + e.getMessage(), e);
+                }
+                if (!hasRow) {
+                    // Release the cursor as soon as iteration is done
+                    close();
+                }
+            }
+            return hasRow;
+        }
+
+        @Override
+        public DBRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasRow = null;
+            return row;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                pooled.markBrokenIfFatal(e);
+            }
+            giveBack(pooled, borrowed);
+        }
     }
 
     /**
      * Example usage of the DBUtility class.
      * Demonstrates how to retrieve and display data from the database.
+     * Run with -Ddb.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1 -Ddb.user=sa -Ddb.password=
+     * to try it against an embedded database seeded with a sample actor table.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws SQLException {
+        if (System.getProperty("db.url", "").startsWith("jdbc:h2:")) {
+            seedSampleData();
+        }
+
         // Example query to get all actors
         List<List<String>> data = getListData("SELECT * FROM actor");
 
@@ -106,5 +261,19 @@ public class DBUtility {
         for (List<String> row : data) {
             System.out.println(row);
         }
+
+        // Parameterized query, the prepared statement is cached on the pooled connection
+        System.out.println(getListData("SELECT * FROM actor WHERE last_name = ?", "GUINESS"));
+        System.out.println(DBConnectionPool.statsSummary());
+    }
+
+    private static void seedSampleData() throws SQLException {
+        DBConnectionPool.PooledConnection pooled = DBConnectionPool.borrow();
+        try (Statement seed = pooled.getConnection().createStatement()) {
+            seed.execute("CREATE TABLE IF NOT EXISTS actor (actor_id INT PRIMARY KEY, first_name VARCHAR(45), last_name VARCHAR(45))");
+            seed.execute("MERGE INTO actor KEY (actor_id) VALUES (1, 'PENELOPE', 'GUINESS'), (2, 'NICK', 'WAHLBERG'), (3, 'ED', 'CHASE')");
+        } finally {
+            DBConnectionPool.release(pooled);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+package Utilities;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DriverBinaries resolves the driver executable (chromedriver, geckodriver, msedgedriver)
+ * for each browser once per JVM, instead of running WebDriverManager before every launch.
+ *
+ * Resolved drivers are recorded in an on-disk manifest (-Ddriver.manifest, default
+ * ~/.cache/selenium/driver-manifest.properties). Later runs take the driver from the
+ * manifest without any version lookup or network access as long as the file still exists.
+ * With -Ddriver.offline=true WebDriverManager is never used, so air-gapped hosts run from
+ * a manifest (and driver files) prepared on a connected host.
+ *
+ * A driver path set explicitly with -Dwebdriver.chrome.driver (etc.) always wins.
+ */
+public class DriverBinaries {
+
+    private static final Path MANIFEST = Paths.get(System.getProperty("driver.manifest",
+            Paths.get(System.getProperty("user.home"), ".cache", "selenium", "driver-manifest.properties").toString()));
+    private static final boolean OFFLINE = Boolean.getBoolean("driver.offline");
+
+    // Driver path per browser, resolved at most once per JVM
+    private static final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    private static final LongAdder manifestHits = new LongAdder();
+    private static final LongAdder onlineResolutions = new LongAdder();
+    private static final LongAdder resolveNanos = new LongAdder();
+
+    /**
+     * Makes sure the driver for a browser is resolved and registered with Selenium.
+     * Only the first call per browser does any work; it is safe to call from many threads.
+     *
+     * @param browser Name of the browser (chrome, firefox, edge); others need no driver binary
+     */
+    public static void resolve(String browser) {
+        String property = driverProperty(browser);
+        if (property == null) {
+            return;
+        }
+        resolved.computeIfAbsent(browser, b -> {
+            long start = System.nanoTime();
+            try {
+                String path = lookup(b, property);
+                System.setProperty(property, path);
+                return path;
+            } finally {
+                resolveNanos.add(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Forgets the driver of a browser, e.g. after the installed browser was updated and the
+     * cached driver no longer starts it. The next resolve looks the driver up again online.
+     *
+     * @param browser Name of the browser
+     * @return true if the driver can be resolved again, false in offline mode
+     */
+    public static boolean invalidate(String browser) {
+        String property = driverProperty(browser);
+        if (property == null || OFFLINE) {
+            return false;
+        }
+        synchronized (DriverBinaries.class) {
+            Properties manifest = readManifest();
+            manifest.remove(browser + ".path");
+            manifest.remove(browser + ".version");
+            writeManifest(manifest);
+        }
+        resolved.remove(browser);
+        System.clearProperty(property);
+        return true;
+    }
+
+    private static String lookup(String browser, String property) {
+        String explicit = System.getProperty(property);
+        if (explicit != null && !explicit.isEmpty()) {
+            return explicit;
+        }
+
+        Properties manifest = readManifest();
+        String cached = manifest.getProperty(browser + ".path");
+        if (cached != null && Files.isExecutable(Paths.get(cached))) {
+            manifestHits.increment();
+            return cached;
+        }
+
+        if (OFFLINE) {
+            throw new IllegalStateException("No usable " + browser + " driver in " + MANIFEST
+                    + " and driver.offline is set. Run once online, or copy the manifest and driver files to this host.");
+        }
+
+        WebDriverManager manager = managerFor(browser);
+        manager.setup();
+        onlineResolutions.increment();
+        String path = manager.getDownloadedDriverPath();
+
+        synchronized (DriverBinaries.class) {
+            // Another JVM (e.g. a parallel shard) may have written entries in the meantime
+            Properties latest = readManifest();
+            latest.setProperty(browser + ".path", path);
+            latest.setProperty(browser + ".version", String.valueOf(manager.getDownloadedDriverVersion()));
+            writeManifest(latest);
+        }
+        return path;
+    }
+
+    private static WebDriverManager managerFor(String browser) {
+        switch (browser) {
+            case "chrome":
+                return WebDriverManager.chromedriver();
+            case "firefox":
+                return WebDriverManager.firefoxdriver();
+            case "edge":
+                return WebDriverManager.edgedriver();
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
+        }
+    }
+
+    private static String driverProperty(String browser) {
+        switch (browser) {
+            case "chrome":
+                return "webdriver.chrome.driver";
+            case "firefox":
+                return "webdriver.gecko.driver";
+            case "edge":
+                return "webdriver.edge.driver";
+            default:
+                return null;
+        }
+    }
+
+    private static Properties readManifest() {
+        Properties manifest = new Properties();
+        if (Files.exists(MANIFEST)) {
+            try (InputStream in = Files.newInputStream(MANIFEST)) {
+                manifest.load(in);
+            } catch (IOException e) {
+                System.err.println("Could not read driver manifest " + MANIFEST + ": " + e.getMessage());
+            }
+        }
+        return manifest;
+    }
+
+    private static void writeManifest(Properties manifest) {
+        try {
+            Path dir = MANIFEST.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, MANIFEST.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                manifest.store(out, "Resolved WebDriver binaries, see DriverBinaries");
+            }
+            Files.move(temp, MANIFEST, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The driver is resolved for this JVM either way, only the next run has to look it up again
+            System.err.println("Could not write driver manifest " + MANIFEST + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns a one-line summary of driver resolution.
+     */
+    public static String statsSummary() {
+        return "DriverBinaries: resolved=" + resolved.keySet()
+                + ", fromManifest=" + manifestHits.sum()
+                + ", online=" + onlineResolutions.sum()
+                + ", resolveMs=" + TimeUnit.NANOSECONDS.toMillis(resolveNanos.sum())
+                + (OFFLINE ? ", offline" : "");
+    }
+}
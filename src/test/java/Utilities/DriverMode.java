@@ -0,0 +1,47 @@
+package Utilities;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * DriverMode selects how BaseDriver launches a browser for a scenario.
+ *
+ * HEADED is a normal browser window. HEADLESS runs Chrome, Edge or Firefox in headless
+ * mode with a trimmed set of flags and a small fixed viewport, which starts faster and
+ * needs no display. HTMLUNIT is an in-process HtmlUnit driver with JavaScript disabled,
+ * for scenarios that only need plain HTML pages; it ignores the browser name.
+ *
+ * A scenario picks its mode with the @headed, @headless or @htmlunit tag. Scenarios
+ * without one of these tags use -Ddriver.mode (default headed).
+ */
+public enum DriverMode {
+    HEADED,
+    HEADLESS,
+    HTMLUNIT;
+
+    /** Mode used by scenarios without a mode tag */
+    public static final DriverMode DEFAULT = valueOf(System.getProperty("driver.mode", "headed").toUpperCase(Locale.ROOT));
+
+    /**
+     * @param tags Tags of the scenario, including feature tags
+     * @return Mode selected by the first mode tag, or the default mode
+     */
+    public static DriverMode forTags(Collection<String> tags) {
+        for (String tag : tags) {
+            for (DriverMode mode : values()) {
+                if (tag.equalsIgnoreCase("@" + mode.name())) {
+                    return mode;
+                }
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * @param browser Browser name
+     * @return Key sessions of this browser and mode are pooled under
+     */
+    public String poolKey(String browser) {
+        return this == HTMLUNIT ? "htmlunit" : browser + "-" + name().toLowerCase(Locale.ROOT);
+    }
+}
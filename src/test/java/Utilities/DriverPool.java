@@ -0,0 +1,322 @@
+package Utilities;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DriverPool keeps a bounded set of live WebDriver sessions per browser type.
+ * Scenarios lease a session instead of launching a new browser, and the session is
+ * reset and health-checked when it is released so the next scenario starts clean.
+ *
+ * Only Chrome and Edge sessions are reused. Their reset clears the cookies of every domain
+ * through CDP, the storage of the current origin and of every origin a scenario opened through
+ * a page object (PageLoad), and replaces the tab with a new one, which drops the session
+ * storage of all origins. WebDriver cannot clear other domains' cookies in other browsers,
+ * so their sessions are restarted after every lease that opened a page.
+ *
+ * Enabled with -Ddriver.pool=true, see BaseDriver.
+ * Tuning: -Ddriver.pool.size (sessions per browser), -Ddriver.pool.maxUses (leases before
+ * a session is retired) and -Ddriver.pool.leaseTimeout (seconds to wait for a free session).
+ */
+public class DriverPool {
+
+    static final int MAX_SESSIONS = Integer.getInteger("driver.pool.size", 4);
+    private static final int MAX_USES = Integer.getInteger("driver.pool.maxUses", 25);
+    private static final long LEASE_TIMEOUT_SECONDS = Long.getLong("driver.pool.leaseTimeout", 300L);
+
+    // One pool per browser and driver mode
+    private static final Map<String, BrowserPool> pools = new ConcurrentHashMap<>();
+
+    // Every session created by the pool, leased or idle, so they can be quit on shutdown
+    private static final Set<Session> liveSessions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // Counters
+    private static final LongAdder leaseCount = new LongAdder();
+    private static final LongAdder reuseCount = new LongAdder();
+    private static final LongAdder createdCount = new LongAdder();
+    private static final LongAdder evictedCount = new LongAdder();
+    private static final LongAdder leaseWaitNanos = new LongAdder();
+    private static final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::quitAll, "driver-pool-shutdown"));
+    }
+
+    /**
+     * A pooled browser session together with its bookkeeping.
+     */
+    public static class Session {
+        private final WebDriver driver;
+        private final String browser;
+        private final DriverMode mode;
+        private String mainWindow;
+        private int uses;
+        private boolean failed;
+        // Origins opened during the current lease, whose storage is cleared on release
+        private final Set<String> origins = ConcurrentHashMap.newKeySet();
+
+        Session(WebDriver driver, String browser, DriverMode mode) {
+            this.driver = driver;
+            this.browser = browser;
+            this.mode = mode;
+            this.mainWindow = driver.getWindowHandle();
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        public DriverMode getMode() {
+            return mode;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+
+        /**
+         * Marks the session as unusable so it is evicted instead of returned to the pool.
+         */
+        public void markFailed() {
+            failed = true;
+        }
+    }
+
+    private static class BrowserPool {
+        private final Semaphore permits = new Semaphore(MAX_SESSIONS, true);
+        private final ConcurrentLinkedDeque<Session> idle = new ConcurrentLinkedDeque<>();
+    }
+
+    /**
+     * Leases a session for the given browser and mode, reusing an idle one when available.
+     * Sessions are pooled per browser and mode, so a headless session is never handed
+     * to a headed scenario. Blocks while all sessions of that kind are leased.
+     *
+     * @param browser Name of the browser (chrome, firefox, edge, safari)
+     * @param mode Headed, headless or HtmlUnit
+     * @return Leased session
+     */
+    public static Session lease(String browser, DriverMode mode) {
+        BrowserPool pool = pools.computeIfAbsent(mode.poolKey(browser), b -> new BrowserPool());
+
+        long start = System.nanoTime();
+        try {
+            if (!pool.permits.tryAcquire(LEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out after " + LEASE_TIMEOUT_SECONDS
+                        + "s waiting for a pooled " + browser + " session");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled " + browser + " session", e);
+        }
+        long waited = System.nanoTime() - start;
+        leaseWaitNanos.add(waited);
+        maxLeaseWaitNanos.accumulateAndGet(waited, Math::max);
+        leaseCount.increment();
+
+        Session session = pool.idle.pollFirst();
+        if (session != null) {
+            reuseCount.increment();
+        } else {
+            try {
+                WebDriver driver = DriverPrewarmer.take(browser, mode);
+                if (driver == null) {
+                    driver = BaseDriver.createDriver(browser, mode);
+                }
+                session = new Session(driver, browser, mode);
+            } catch (RuntimeException e) {
+                pool.permits.release();
+                throw e;
+            }
+            liveSessions.add(session);
+            createdCount.increment();
+        }
+
+        session.uses++;
+        return session;
+    }
+
+    /**
+     * Remembers an origin a pooled driver opened, so its storage is cleared when the session is
+     * released. Does nothing for drivers that are not pooled.
+     *
+     * @param driver Driver that navigates
+     * @param url URL it opens
+     */
+    public static void noteOrigin(WebDriver driver, String url) {
+        for (Session session : liveSessions) {
+            if (session.driver == driver) {
+                try {
+                    URI uri = URI.create(url);
+                    if (uri.getScheme() != null && uri.getRawAuthority() != null) {
+                        session.origins.add(uri.getScheme() + "://" + uri.getRawAuthority());
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Not a URL a page is loaded from, nothing to clear
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a session to its pool. The session is reset and health-checked first;
+     * it is evicted instead when it failed, reached the maximum number of uses or
+     * could not be reset.
+     *
+     * @param session Session previously returned by lease
+     */
+    public static void release(Session session) {
+        BrowserPool pool = pools.get(session.mode.poolKey(session.browser));
+        try {
+            if (session.failed || session.uses >= MAX_USES || !reset(session) || !isHealthy(session)) {
+                evict(session);
+            } else {
+                // Most recently used first keeps the warmest sessions busy
+                pool.idle.offerFirst(session);
+            }
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    /**
+     * Quits every idle session. The pool stays usable afterwards and will start new
+     * sessions on demand.
+     */
+    public static void shutdown() {
+        for (BrowserPool pool : pools.values()) {
+            Session session;
+            while ((session = pool.idle.pollFirst()) != null) {
+                quitQuietly(session);
+            }
+        }
+    }
+
+    /**
+     * Quits every session, leased ones included. Runs when the JVM shuts down.
+     */
+    private static void quitAll() {
+        shutdown();
+        for (Session session : liveSessions) {
+            quitQuietly(session);
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the pool counters.
+     */
+    public static String statsSummary() {
+        long leases = leaseCount.sum();
+        long avgWaitMs = leases == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.sum() / leases);
+        return "DriverPool: leases=" + leases
+                + ", reused=" + reuseCount.sum()
+                + ", created=" + createdCount.sum()
+                + ", evicted=" + evictedCount.sum()
+                + ", avgLeaseWaitMs=" + avgWaitMs
+                + ", maxLeaseWaitMs=" + TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get());
+    }
+
+    public static long getLeaseCount() {
+        return leaseCount.sum();
+    }
+
+    public static long getReuseCount() {
+        return reuseCount.sum();
+    }
+
+    public static long getLeaseWaitNanos() {
+        return leaseWaitNanos.sum();
+    }
+
+    /**
+     * Clears cookies, web storage and any extra windows so the next scenario sees a fresh browser.
+     *
+     * @return true if the session is clean, false if it has to be restarted
+     */
+    private static boolean reset(Session session) {
+        WebDriver driver = session.driver;
+        try {
+            for (String handle : driver.getWindowHandles()) {
+                if (!handle.equals(session.mainWindow)) {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(session.mainWindow);
+
+            String currentUrl = driver.getCurrentUrl();
+            if (!(driver instanceof ChromiumDriver)) {
+                // Cookies of other domains cannot be deleted, a session that opened a page is not clean
+                return session.origins.isEmpty() && (currentUrl == null || currentUrl.startsWith("about:"));
+            }
+
+            ChromiumDriver chromium = (ChromiumDriver) driver;
+            // Clears cookies of every domain, not only the current one
+            chromium.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+            if (currentUrl != null) {
+                noteOrigin(driver, currentUrl);
+            }
+            for (String origin : session.origins) {
+                Map<String, Object> params = new LinkedHashMap<>();
+                params.put("origin", origin);
+                params.put("storageTypes", "all");
+                chromium.executeCdpCommand("Storage.clearDataForOrigin", params);
+            }
+
+            // Session storage belongs to the tab, a new tab starts without any
+            String oldWindow = session.mainWindow;
+            driver.switchTo().newWindow(WindowType.TAB);
+            session.mainWindow = driver.getWindowHandle();
+            driver.switchTo().window(oldWindow).close();
+            driver.switchTo().window(session.mainWindow);
+            Readiness.register(driver);
+
+            session.origins.clear();
+            return true;
+        } catch (WebDriverException e) {
+            System.err.println("Failed to reset pooled " + session.browser + " session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isHealthy(Session session) {
+        try {
+            return session.driver.getWindowHandle() != null;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static void evict(Session session) {
+        evictedCount.increment();
+        quitQuietly(session);
+    }
+
+    private static void quitQuietly(Session session) {
+        liveSessions.remove(session);
+        try {
+            session.driver.quit();
+        } catch (WebDriverException e) {
+            System.err.println("Error quitting pooled " + session.browser + " session: " + e.getMessage());
+        }
+    }
+}
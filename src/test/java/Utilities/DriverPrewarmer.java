@@ -0,0 +1,163 @@
+package Utilities;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DriverPrewarmer launches browsers in the background before scenarios ask for them,
+ * e.g. while Cucumber is still parsing features and loading glue, so the first getDriver()
+ * on each scenario thread gets a browser that is already running.
+ *
+ * A prewarmed browser is handed out once, to the first thread that asks for the same
+ * browser and mode; in pooled mode it becomes a pooled session. A thread that asks while
+ * its browser is still starting waits only for the rest of the launch. Browsers nobody
+ * claimed are quit on shutdown.
+ *
+ * The summary shows how much launch time ran in the background (overlapped) and how
+ * much scenario threads still waited for.
+ */
+public class DriverPrewarmer {
+
+    /**
+     * A browser launched in the background.
+     */
+    private static class WarmDriver {
+        final CompletableFuture<WebDriver> driver;
+        volatile long launchNanos;
+
+        WarmDriver(CompletableFuture<WebDriver> driver) {
+            this.driver = driver;
+        }
+    }
+
+    private static final Map<String, Queue<WarmDriver>> warm = new ConcurrentHashMap<>();
+    private static volatile ExecutorService launcher;
+
+    private static final LongAdder startedCount = new LongAdder();
+    private static final LongAdder claimedCount = new LongAdder();
+    private static final LongAdder failedCount = new LongAdder();
+    private static final LongAdder unclaimedCount = new LongAdder();
+    private static final LongAdder overlappedNanos = new LongAdder();
+    private static final LongAdder waitedNanos = new LongAdder();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPrewarmer::shutdown, "driver-prewarm-shutdown"));
+    }
+
+    /**
+     * Starts launching browsers in the background and returns immediately.
+     *
+     * @param browser Name of the browser (chrome, firefox, edge, safari)
+     * @param mode Headed, headless or HtmlUnit
+     * @param count Number of browsers to launch, typically the number of scenario threads
+     */
+    public static synchronized void start(String browser, DriverMode mode, int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (launcher == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            launcher = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "driver-prewarm-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        Queue<WarmDriver> queue = warm.computeIfAbsent(mode.poolKey(browser), k -> new ConcurrentLinkedQueue<>());
+        for (int i = 0; i < count; i++) {
+            CompletableFuture<WebDriver> future = new CompletableFuture<>();
+            WarmDriver warmDriver = new WarmDriver(future);
+            launcher.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    WebDriver driver = BaseDriver.createDriver(browser, mode);
+                    warmDriver.launchNanos = System.nanoTime() - start;
+                    future.complete(driver);
+                } catch (RuntimeException e) {
+                    failedCount.increment();
+                    System.err.println("Prewarming a " + mode.poolKey(browser) + " browser failed: " + e.getMessage());
+                    future.completeExceptionally(e);
+                }
+            });
+            queue.add(warmDriver);
+            startedCount.increment();
+        }
+        System.out.println("Prewarming " + count + " " + mode.poolKey(browser) + " browsers");
+    }
+
+    /**
+     * Takes a prewarmed browser, waiting for it if it is still starting.
+     *
+     * @param browser Name of the browser
+     * @param mode Headed, headless or HtmlUnit
+     * @return A running browser, or null if none was prewarmed (or its launch failed)
+     */
+    public static WebDriver take(String browser, DriverMode mode) {
+        Queue<WarmDriver> queue = warm.get(mode.poolKey(browser));
+        if (queue == null) {
+            return null;
+        }
+
+        WarmDriver warmDriver;
+        while ((warmDriver = queue.poll()) != null) {
+            long waitStart = System.nanoTime();
+            try {
+                WebDriver driver = warmDriver.driver.join();
+                long waited = System.nanoTime() - waitStart;
+                claimedCount.increment();
+                waitedNanos.add(waited);
+                overlappedNanos.add(Math.max(0, warmDriver.launchNanos - waited));
+                return driver;
+            } catch (CompletionException e) {
+                // Launch failed, try the next one or let the caller launch its own
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Quits prewarmed browsers that were never claimed.
+     */
+    public static void shutdown() {
+        for (Queue<WarmDriver> queue : warm.values()) {
+            WarmDriver warmDriver;
+            while ((warmDriver = queue.poll()) != null) {
+                try {
+                    warmDriver.driver.join().quit();
+                    unclaimedCount.increment();
+                } catch (CompletionException | WebDriverException e) {
+                    // Nothing to quit
+                }
+            }
+        }
+        ExecutorService current = launcher;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Returns a one-line summary of prewarming.
+     */
+    public static String statsSummary() {
+        return "DriverPrewarmer: started=" + startedCount.sum()
+                + ", claimed=" + claimedCount.sum()
+                + ", failed=" + failedCount.sum()
+                + ", unclaimed=" + unclaimedCount.sum()
+                + ", overlappedMs=" + TimeUnit.NANOSECONDS.toMillis(overlappedNanos.sum())
+                + ", waitedMs=" + TimeUnit.NANOSECONDS.toMillis(waitedNanos.sum());
+    }
+}
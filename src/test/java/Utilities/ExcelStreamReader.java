@@ -0,0 +1,587 @@
+package Utilities;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ExcelStreamReader reads a sheet row by row with POI's event APIs instead of loading
+ * the whole workbook object model: the SAX sheet parser for .xlsx and HSSF event records
+ * for .xls. Only the current row is kept in memory.
+ *
+ * Cell values follow the same rules as ExcelUtility.getListData: strings as is, numbers
+ * as String.valueOf(double), date formatted numbers as Date.toString(), booleans as
+ * "true"/"false", and formula, error and blank cells as "". A row that exists in the
+ * sheet yields columnCount values; a missing row yields an empty list. Unlike the
+ * workbook path, rows after a gap are not cut off at the physical row count.
+ */
+public class ExcelStreamReader {
+
+    // Rows buffered between the parser thread and the consumer of stream()
+    private static final int STREAM_BUFFER_ROWS = 256;
+
+    private static final Object END_OF_SHEET = new Object();
+
+    /**
+     * Reads a sheet and hands every row to the consumer in order.
+     *
+     * @param path Path to the .xls or .xlsx file
+     * @param sheetName Name of the sheet to read
+     * @param columnCount Number of columns to read, or 0 to read each row up to its last cell
+     * @param rowConsumer Receives each row
+     */
+    public static void read(String path, String sheetName, int columnCount, Consumer<List<String>> rowConsumer) {
+        RowAssembler rows = new RowAssembler(columnCount, rowConsumer);
+        try {
+            if (path.toLowerCase().endsWith(".xls")) {
+                readXls(path, sheetName, rows);
+            } else {
+                readXlsx(path, sheetName, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the rows of a sheet as a lazily filled stream. The sheet is parsed on a
+     * background thread that stays at most a small, fixed number of rows ahead of the
+     * consumer. Close the stream (e.g. with try-with-resources) to stop parsing early.
+     *
+     * @param path Path to the .xls or .xlsx file
+     * @param sheetName Name of the sheet to read
+     * @param columnCount Number of columns to read, or 0 to read each row up to its last cell
+     * @return Stream of rows
+     */
+    public static Stream<List<String>> stream(String path, String sheetName, int columnCount) {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(STREAM_BUFFER_ROWS);
+
+        Thread producer = new Thread(() -> {
+            try {
+                read(path, sheetName, columnCount, row -> put(queue, row));
+                put(queue, END_OF_SHEET);
+            } catch (StopReading e) {
+                // Consumer closed the stream
+            } catch (RuntimeException e) {
+                try {
+                    queue.put(e);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "excel-stream-reader");
+        producer.setDaemon(true);
+        producer.start();
+
+        Iterator<List<String>> iterator = new Iterator<List<String>>() {
+            private Object next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while reading " + path, e);
+                    }
+                }
+                if (next instanceof RuntimeException) {
+                    throw (RuntimeException) next;
+                }
+                return next != END_OF_SHEET;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<String> row = (List<String>) next;
+                next = null;
+                return row;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    producer.interrupt();
+                    queue.clear();
+                });
+    }
+
+    private static void put(BlockingQueue<Object> queue, Object row) {
+        try {
+            queue.put(row);
+        } catch (InterruptedException e) {
+            throw new StopReading();
+        }
+    }
+
+    /**
+     * Thrown from inside a parser callback to stop parsing.
+     */
+    private static class StopReading extends RuntimeException {
+        StopReading() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Turns cell callbacks into complete rows, filling in missing rows and cells.
+     */
+    private static class RowAssembler {
+        private final int columnCount;
+        private final Consumer<List<String>> consumer;
+
+        // Rows the file declares even if they have no cells (.xls only)
+        private final BitSet definedRows = new BitSet();
+
+        private int nextRow;
+        private int currentRow = -1;
+        private List<String> cells;
+
+        RowAssembler(int columnCount, Consumer<List<String>> consumer) {
+            this.columnCount = columnCount;
+            this.consumer = consumer;
+        }
+
+        void defineRow(int rowIndex) {
+            definedRows.set(rowIndex);
+        }
+
+        void startRow(int rowIndex) {
+            endRow();
+            emitGapsUntil(rowIndex);
+            currentRow = rowIndex;
+            cells = new ArrayList<>(Math.max(columnCount, 0));
+        }
+
+        void cell(int rowIndex, int column, String value) {
+            if (rowIndex != currentRow) {
+                startRow(rowIndex);
+            }
+            if (columnCount > 0 && column >= columnCount) {
+                return;
+            }
+            while (cells.size() <= column) {
+                cells.add("");
+            }
+            cells.set(column, value);
+        }
+
+        void endRow() {
+            if (currentRow < 0) {
+                return;
+            }
+            while (cells.size() < columnCount) {
+                cells.add("");
+            }
+            consumer.accept(cells);
+            nextRow = currentRow + 1;
+            currentRow = -1;
+            cells = null;
+        }
+
+        void finish() {
+            endRow();
+            emitGapsUntil(definedRows.length());
+        }
+
+        private void emitGapsUntil(int rowIndex) {
+            for (; nextRow < rowIndex; nextRow++) {
+                List<String> gap = new ArrayList<>();
+                if (definedRows.get(nextRow)) {
+                    for (int j = 0; j < columnCount; j++) {
+                        gap.add("");
+                    }
+                }
+                consumer.accept(gap);
+            }
+        }
+    }
+
+    private static void readXlsx(String path, String sheetName, RowAssembler rows) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(new File(path), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheets.getSheetName().equals(sheetName)) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new SheetHandler(strings, styles, rows));
+                        parser.parse(new InputSource(sheet));
+                        rows.finish();
+                        return;
+                    }
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in the workbook");
+    }
+
+    /**
+     * SAX handler for a worksheet part of an .xlsx file.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final RowAssembler rows;
+
+        private final StringBuilder value = new StringBuilder();
+        private boolean capturing;
+        private int rowIndex = -1;
+        private int column;
+        private String cellType;
+        private String styleIndex;
+        private boolean formula;
+
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, RowAssembler rows) {
+            this.strings = strings;
+            this.styles = styles;
+            this.rows = rows;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    rows.startRow(rowIndex);
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : column + 1;
+                    cellType = attributes.getValue("t");
+                    styleIndex = attributes.getValue("s");
+                    formula = false;
+                    value.setLength(0);
+                    break;
+                case "f":
+                    formula = true;
+                    break;
+                case "v":
+                case "t":
+                    capturing = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    capturing = false;
+                    break;
+                case "c":
+                    rows.cell(rowIndex, column, cellValue());
+                    column++;
+                    break;
+                case "row":
+                    rows.endRow();
+                    column = 0;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (capturing) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private String cellValue() {
+            if (formula) {
+                return "";
+            }
+            String raw = value.toString();
+            if (cellType == null || cellType.equals("n")) {
+                if (raw.isEmpty()) {
+                    return "";
+                }
+                double number = Double.parseDouble(raw);
+                if (styleIndex != null && isDateFormat(Integer.parseInt(styleIndex), number)) {
+                    return DateUtil.getJavaDate(number).toString();
+                }
+                return String.valueOf(number);
+            }
+            switch (cellType) {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(raw)).getString();
+                case "inlineStr":
+                    return raw;
+                case "b":
+                    return String.valueOf("1".equals(raw));
+                default:
+                    // "e" errors and "str" formula results
+                    return "";
+            }
+        }
+
+        private boolean isDateFormat(int style, double number) {
+            XSSFCellStyle cellStyle = styles.getStyleAt(style);
+            if (cellStyle == null) {
+                return false;
+            }
+            short formatIndex = cellStyle.getDataFormat();
+            String formatString = cellStyle.getDataFormatString();
+            if (formatString == null) {
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            return DateUtil.isValidExcelDate(number) && DateUtil.isADateFormat(formatIndex, formatString);
+        }
+    }
+
+    private static void readXls(String path, String sheetName, RowAssembler rows) throws IOException {
+        XlsListener listener = new XlsListener(sheetName, rows);
+        FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(listener);
+        listener.formats = formats;
+
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(formats);
+
+        try (POIFSFileSystem fs = new POIFSFileSystem(new File(path), true)) {
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+        } catch (SheetDone e) {
+            return;
+        }
+        throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in the workbook");
+    }
+
+    /**
+     * Thrown by the .xls listener once the requested sheet has been read.
+     */
+    private static class SheetDone extends RuntimeException {
+        SheetDone() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * HSSF record listener for one sheet of an .xls file.
+     */
+    private static class XlsListener implements HSSFListener {
+        private final String sheetName;
+        private final RowAssembler rows;
+        private FormatTrackingHSSFListener formats;
+
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        private BoundSheetRecord[] orderedSheets;
+        private int sheetIndex = -1;
+        private boolean inSheet;
+        private boolean date1904;
+        private SSTRecord sst;
+
+        XlsListener(String sheetName, RowAssembler rows) {
+            this.sheetName = sheetName;
+            this.rows = rows;
+        }
+
+        @Override
+        public void processRecord(Record record) {
+            switch (record.getSid()) {
+                case BoundSheetRecord.sid:
+                    boundSheets.add((BoundSheetRecord) record);
+                    break;
+                case BOFRecord.sid:
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        if (orderedSheets == null) {
+                            orderedSheets = BoundSheetRecord.orderByBofPosition(boundSheets);
+                        }
+                        sheetIndex++;
+                        inSheet = orderedSheets[sheetIndex].getSheetname().equals(sheetName);
+                    }
+                    break;
+                case EOFRecord.sid:
+                    if (inSheet) {
+                        rows.finish();
+                        throw new SheetDone();
+                    }
+                    break;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    break;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    break;
+                case RowRecord.sid:
+                    if (inSheet) {
+                        rows.defineRow(((RowRecord) record).getRowNumber());
+                    }
+                    break;
+                default:
+                    if (inSheet && record instanceof CellValueRecordInterface) {
+                        CellValueRecordInterface cell = (CellValueRecordInterface) record;
+                        rows.cell(cell.getRow(), cell.getColumn(), cellValue(record));
+                    }
+                    break;
+            }
+        }
+
+        private String cellValue(Record record) {
+            switch (record.getSid()) {
+                case LabelSSTRecord.sid:
+                    return sst.getString(((LabelSSTRecord) record).getSSTIndex()).getString();
+                case LabelRecord.sid:
+                    return ((LabelRecord) record).getValue();
+                case NumberRecord.sid:
+                    NumberRecord number = (NumberRecord) record;
+                    double value = number.getValue();
+                    if (DateUtil.isValidExcelDate(value)
+                            && DateUtil.isADateFormat(formats.getFormatIndex(number), formats.getFormatString(number))) {
+                        return DateUtil.getJavaDate(value, date1904).toString();
+                    }
+                    return String.valueOf(value);
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    return boolErr.isBoolean() ? String.valueOf(boolErr.getBooleanValue()) : "";
+                case FormulaRecord.sid:
+                default:
+                    return "";
+            }
+        }
+    }
+
+    /**
+     * Compares heap use and throughput of the workbook (DOM) path and the streaming path.
+     * Generates .xls and .xlsx fixtures under target/ with the given number of rows
+     * (default 50000; .xls is capped at its 65536 row limit).
+     */
+    public static void main(String[] args) throws IOException {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        new File("target").mkdirs();
+
+        String xlsx = "target/stream-compare.xlsx";
+        String xls = "target/stream-compare.xls";
+        writeFixture(new SXSSFWorkbook(100), xlsx, rowCount);
+        writeFixture(new HSSFWorkbook(), xls, Math.min(rowCount, 65_535));
+
+        System.out.printf("%-6s %-10s %10s %10s %14s%n", "file", "reader", "rows", "millis", "peakHeapMB");
+        for (String path : new String[]{xls, xlsx}) {
+            compare(path, "workbook", () -> ExcelUtility.getListDataFromWorkbook(path, "Data", 4).size());
+            compare(path, "streaming", () -> {
+                AtomicLong count = new AtomicLong();
+                read(path, "Data", 4, row -> count.incrementAndGet());
+                return count.intValue();
+            });
+        }
+    }
+
+    private static void writeFixture(Workbook workbook, String path, int rowCount) throws IOException {
+        try (Workbook wb = workbook; FileOutputStream out = new FileOutputStream(path)) {
+            Sheet sheet = wb.createSheet("Data");
+            for (int i = 0; i < rowCount; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("user" + i);
+                row.createCell(1).setCellValue("password" + i);
+                row.createCell(2).setCellValue(i * 1.5);
+                row.createCell(3).setCellValue(i % 2 == 0);
+            }
+            wb.write(out);
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+    }
+
+    private static void compare(String path, String reader, IntSupplier run) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        int rows = run.getAsInt();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        sampler.interrupt();
+
+        String extension = path.substring(path.lastIndexOf('.') + 1);
+        System.out.printf("%-6s %-10s %10d %10d %14.1f%n", extension, reader, rows, millis,
+                (peak.get() - baseline) / (1024.0 * 1024.0));
+    }
+}
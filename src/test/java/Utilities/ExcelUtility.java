@@ -2,22 +2,25 @@ package Utilities;
 
 import io.cucumber.java.Scenario;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * ExcelUtility class provides reusable methods for Excel file operations.
  * It supports reading from and writing to Excel files using Apache POI.
  */
 public class ExcelUtility {
-    
+
+    // Read sheets with the event-based ExcelStreamReader instead of WorkbookFactory
+    private static final boolean STREAMING = Boolean.getBoolean("excel.streaming");
+
     /**
      * Reads data from an Excel file and returns it as a List of Lists.
      * Each inner List represents a row from the Excel sheet.
+     * With -Dexcel.streaming=true the sheet is read with ExcelStreamReader.
      *
      * @param path Path to the Excel file
      * @param sheetName Name of the sheet to read from
@@ -25,6 +28,65 @@ public class ExcelUtility {
      * @return List of Lists containing the Excel data
      */
     public static List<List<String>> getListData(String path, String sheetName, int columnCount) {
+        try {
+            return readListData(path, sheetName, columnCount);
+        } catch (IOException e) {
+            System.err.println("Error reading Excel file: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads a sheet like getListData, but lets a read error through instead of returning
+     * an empty list, for callers that must tell an empty sheet from a failed read.
+     *
+     * @param path Path to the Excel file
+     * @param sheetName Name of the sheet to read from
+     * @param columnCount Number of columns to read
+     * @return List of Lists containing the Excel data
+     * @throws IOException if the file cannot be read
+     */
+    static List<List<String>> readListData(String path, String sheetName, int columnCount) throws IOException {
+        if (STREAMING) {
+            List<List<String>> returnList = new ArrayList<>();
+            try {
+                ExcelStreamReader.read(path, sheetName, columnCount, returnList::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return returnList;
+        }
+        return readWorkbook(path, sheetName, columnCount);
+    }
+
+    /**
+     * Streams the rows of an Excel sheet without loading the workbook into memory.
+     * Values follow the same conversion rules as getListData. Close the stream when done.
+     *
+     * @param path Path to the Excel file
+     * @param sheetName Name of the sheet to read from
+     * @param columnCount Number of columns to read
+     * @return Stream of rows
+     */
+    public static Stream<List<String>> streamListData(String path, String sheetName, int columnCount) {
+        return ExcelStreamReader.stream(path, sheetName, columnCount);
+    }
+
+    /**
+     * Reads a sheet through the full workbook object model (WorkbookFactory).
+     */
+    static List<List<String>> getListDataFromWorkbook(String path, String sheetName, int columnCount) {
+        try {
+            return readWorkbook(path, sheetName, columnCount);
+        } catch (IOException e) {
+            System.err.println("Error reading Excel file: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<List<String>> readWorkbook(String path, String sheetName, int columnCount) throws IOException {
         List<List<String>> returnList = new ArrayList<>();
 
         try (FileInputStream inputStream = new FileInputStream(path);
@@ -70,9 +132,6 @@ public class ExcelUtility {
                 }
                 returnList.add(rowList);
             }
-        } catch (IOException e) {
-            System.err.println("Error reading Excel file: " + e.getMessage());
-            e.printStackTrace();
         }
 
         return returnList;
@@ -81,6 +140,8 @@ public class ExcelUtility {
     /**
      * Writes test execution results to an Excel file.
      * Creates a new file if it doesn't exist, or appends to existing file.
+     * The row is queued on the file's ResultSink and appended to the file in the
+     * background, together with the other rows queued since the last write.
      *
      * @param path Path to the Excel file
      * @param scenario Cucumber scenario object containing test information
@@ -88,59 +149,20 @@ public class ExcelUtility {
      * @param time Time of test execution
      */
     public static void writeExcel(String path, Scenario scenario, String browserName, String time) {
-        File file = new File(path);
-        String sheetName = "TestResults";
+        writeExcel(path, scenario.getId(), scenario.getStatus().toString(), browserName, time);
+    }
 
-        try {
-            if (!file.exists()) {
-                // Create new workbook and sheet
-                try (XSSFWorkbook workbook = new XSSFWorkbook();
-                     FileOutputStream outputStream = new FileOutputStream(path)) {
-                    
-                    XSSFSheet sheet = workbook.createSheet(sheetName);
-                    
-                    // Create header row
-                    Row headerRow = sheet.createRow(0);
-                    String[] headers = {"Scenario ID", "Status", "Browser", "Time"};
-                    for (int i = 0; i < headers.length; i++) {
-                        headerRow.createCell(i).setCellValue(headers[i]);
-                    }
-                    
-                    // Create data row
-                    Row dataRow = sheet.createRow(1);
-                    dataRow.createCell(0).setCellValue(scenario.getId());
-                    dataRow.createCell(1).setCellValue(scenario.getStatus().toString());
-                    dataRow.createCell(2).setCellValue(browserName);
-                    dataRow.createCell(3).setCellValue(time);
-                    
-                    workbook.write(outputStream);
-                }
-            } else {
-                // Append to existing file
-                try (FileInputStream inputStream = new FileInputStream(path);
-                     Workbook workbook = WorkbookFactory.create(inputStream);
-                     FileOutputStream outputStream = new FileOutputStream(path)) {
-                    
-                    Sheet sheet = workbook.getSheet(sheetName);
-                    if (sheet == null) {
-                        sheet = workbook.createSheet(sheetName);
-                    }
-                    
-                    int rowCount = sheet.getPhysicalNumberOfRows();
-                    Row row = sheet.createRow(rowCount);
-                    
-                    row.createCell(0).setCellValue(scenario.getId());
-                    row.createCell(1).setCellValue(scenario.getStatus().toString());
-                    row.createCell(2).setCellValue(browserName);
-                    row.createCell(3).setCellValue(time);
-                    
-                    workbook.write(outputStream);
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error writing to Excel file: " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Writes a test execution result row to an Excel file.
+     *
+     * @param path Path to the Excel file
+     * @param scenarioId Scenario identifier
+     * @param status Scenario status
+     * @param browserName Name of the browser used for the test
+     * @param time Time of test execution
+     */
+    public static void writeExcel(String path, String scenarioId, String status, String browserName, String time) {
+        ResultSink.forPath(path).append(scenarioId, status, browserName, time);
     }
 
     /**
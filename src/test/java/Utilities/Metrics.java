@@ -0,0 +1,236 @@
+package Utilities;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Metrics keeps latency histograms per kind (step, hook, action), name and browser.
+ * Steps and hooks are recorded by MetricsPlugin, page-object actions by Parent.
+ *
+ * At the end of the run MetricsPlugin writes the histograms to latency.json (p50, p95,
+ * p99 and max per series, in milliseconds) and latency.prom (Prometheus text format),
+ * so builds can be compared with each other.
+ *
+ * The run-level counters of the utilities (their statsSummary lines) are written to
+ * run-summary.txt in the same directory; -Dmetrics.console=true prints them as well.
+ */
+public class Metrics {
+
+    public static final String STEP = "step";
+    public static final String HOOK = "hook";
+    public static final String ACTION = "action";
+
+    public static final String RUN_SUMMARY = "run-summary.txt";
+
+    private static final double[] QUANTILES = {50, 95, 99};
+    private static final boolean CONSOLE = Boolean.getBoolean("metrics.console");
+
+    // Directory of the metrics files, set by MetricsPlugin
+    private static volatile Path outputDir = Paths.get("target/metrics");
+
+    private static final Map<Series, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies one histogram.
+     */
+    private static final class Series implements Comparable<Series> {
+        final String kind;
+        final String name;
+        final String browser;
+
+        Series(String kind, String name, String browser) {
+            this.kind = kind;
+            this.name = name;
+            this.browser = browser;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Series)) {
+                return false;
+            }
+            Series other = (Series) o;
+            return kind.equals(other.kind) && name.equals(other.name) && browser.equals(other.browser);
+        }
+
+        @Override
+        public int hashCode() {
+            return (kind.hashCode() * 31 + name.hashCode()) * 31 + browser.hashCode();
+        }
+
+        @Override
+        public int compareTo(Series other) {
+            int result = kind.compareTo(other.kind);
+            if (result == 0) {
+                result = name.compareTo(other.name);
+            }
+            return result != 0 ? result : browser.compareTo(other.browser);
+        }
+    }
+
+    /**
+     * Records one duration for the current thread's browser.
+     *
+     * @param kind Kind of operation, e.g. Metrics.STEP
+     * @param name Step definition, hook or page-object method
+     * @param nanos Duration in nanoseconds
+     */
+    public static void record(String kind, String name, long nanos) {
+        Series series = new Series(kind, name, currentBrowser());
+        LatencyHistogram histogram = histograms.get(series);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(series, s -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Runs a page-object action and records how long it took, also when it fails.
+     *
+     * @param name Page-object method, e.g. EcommercePage.clickFunction
+     * @param action Action to run
+     */
+    public static void time(String name, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(ACTION, name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a page-object action that returns a value and records how long it took.
+     *
+     * @param name Page-object method
+     * @param action Action to run
+     * @return Value returned by the action
+     */
+    public static <T> T time(String name, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(ACTION, name, System.nanoTime() - start);
+        }
+    }
+
+    static void setOutputDir(Path dir) {
+        outputDir = dir;
+    }
+
+    /**
+     * Writes the run-level summaries of the utilities to run-summary.txt in the metrics
+     * directory, and to the console with -Dmetrics.console=true.
+     *
+     * @param summaries One statsSummary line per utility
+     */
+    public static void writeRunSummary(List<String> summaries) {
+        Path file = outputDir.resolve(RUN_SUMMARY);
+        try {
+            Files.createDirectories(outputDir);
+            Files.write(file, summaries, StandardCharsets.UTF_8);
+            System.out.println("Run summary written to " + file);
+        } catch (IOException e) {
+            System.err.println("Error writing run summary to " + file + ": " + e.getMessage());
+        }
+        if (CONSOLE) {
+            for (String summary : summaries) {
+                System.out.println(summary);
+            }
+        }
+    }
+
+    /**
+     * Writes latency.json and latency.prom to the given directory.
+     *
+     * @param dir Output directory, created if needed
+     */
+    public static void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Map<Series, LatencyHistogram> sorted = new TreeMap<>(histograms);
+
+        List<Map<String, Object>> json = new ArrayList<>();
+        StringBuilder prom = new StringBuilder();
+        String lastKind = null;
+        for (Map.Entry<Series, LatencyHistogram> entry : sorted.entrySet()) {
+            Series series = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("kind", series.kind);
+            summary.put("name", series.name);
+            summary.put("browser", series.browser);
+            summary.put("count", histogram.getCount());
+            summary.put("p50", histogram.percentileMillis(50));
+            summary.put("p95", histogram.percentileMillis(95));
+            summary.put("p99", histogram.percentileMillis(99));
+            summary.put("max", histogram.getMaxMillis());
+            json.add(summary);
+
+            String metric = "cucumber_" + series.kind + "_duration_seconds";
+            if (!series.kind.equals(lastKind)) {
+                prom.append("# HELP ").append(metric).append(" Latency per ").append(series.kind).append(" and browser\n");
+                prom.append("# TYPE ").append(metric).append(" summary\n");
+                lastKind = series.kind;
+            }
+            String labels = "name=\"" + escapeLabel(series.name) + "\",browser=\"" + escapeLabel(series.browser) + "\"";
+            for (double quantile : QUANTILES) {
+                prom.append(metric).append('{').append(labels)
+                        .append(",quantile=\"").append(quantile / 100).append("\"} ")
+                        .append(seconds(histogram.percentileMillis(quantile))).append('\n');
+            }
+            prom.append(metric).append("_sum{").append(labels).append("} ").append(seconds(histogram.getSumMillis())).append('\n');
+            prom.append(metric).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+            prom.append(metric).append("_max{").append(labels).append("} ").append(seconds(histogram.getMaxMillis())).append('\n');
+        }
+
+        try (Writer writer = Files.newBufferedWriter(dir.resolve("latency.json"), StandardCharsets.UTF_8)) {
+            writer.write(new Json().toJson(json));
+        }
+        Files.write(dir.resolve("latency.prom"), prom.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a summary of the slowest series by p95.
+     */
+    public static String statsSummary() {
+        List<Map.Entry<Series, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().percentileMillis(95), a.getValue().percentileMillis(95)));
+
+        StringBuilder summary = new StringBuilder("Metrics: series=" + entries.size());
+        for (Map.Entry<Series, LatencyHistogram> entry : entries.subList(0, Math.min(5, entries.size()))) {
+            summary.append(String.format(Locale.ROOT, "%n  %s %s [%s] p95=%.0fms max=%.0fms n=%d",
+                    entry.getKey().kind, entry.getKey().name, entry.getKey().browser,
+                    entry.getValue().percentileMillis(95), entry.getValue().getMaxMillis(), entry.getValue().getCount()));
+        }
+        return summary.toString();
+    }
+
+    private static String currentBrowser() {
+        String browser = BaseDriver.threadBrowserName.get();
+        return browser == null ? "none" : browser;
+    }
+
+    private static String seconds(double millis) {
+        return String.format(Locale.ROOT, "%.6f", millis / 1000);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,58 @@
+package Utilities;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * MetricsPlugin records the latency of every step definition and hook into Metrics,
+ * per browser, and writes the latency reports when the run finishes.
+ * Step events arrive on the scenario's own thread, so the browser is the one the
+ * scenario runs on.
+ *
+ * Usage: plugin = "Utilities.MetricsPlugin:target/metrics" (the default directory).
+ */
+public class MetricsPlugin implements ConcurrentEventListener {
+
+    private final File dir;
+
+    public MetricsPlugin() {
+        this(new File("target/metrics"));
+    }
+
+    public MetricsPlugin(File dir) {
+        this.dir = dir;
+        Metrics.setOutputDir(dir.toPath());
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::runFinished);
+    }
+
+    private void stepFinished(TestStepFinished event) {
+        long nanos = event.getResult().getDuration().toNanos();
+        if (event.getTestStep() instanceof PickleStepTestStep) {
+            Metrics.record(Metrics.STEP, ((PickleStepTestStep) event.getTestStep()).getPattern(), nanos);
+        } else if (event.getTestStep() instanceof HookTestStep) {
+            Metrics.record(Metrics.HOOK, event.getTestStep().getCodeLocation(), nanos);
+        }
+    }
+
+    private void runFinished(TestRunFinished event) {
+        try {
+            Metrics.write(dir.toPath());
+            System.out.println(Metrics.statsSummary());
+        } catch (IOException e) {
+            System.err.println("Error writing latency metrics to " + dir + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package Utilities;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NetworkBlocker blocks requests in Chrome and Edge through the DevTools protocol, so
+ * analytics, ads, fonts or images (see NetworkRules) do not slow down page loads.
+ *
+ * Only requests matching a block pattern (or, with media blocking, image and media requests)
+ * are paused by the browser; allow-listed ones continue, the rest fail as blocked by the
+ * client. All other requests are never paused. The commands are sent by name, so they do
+ * not depend on the CDP version Selenium ships.
+ *
+ * Blocked requests and loaded bytes are counted per scenario. The bytes of a blocked request
+ * are estimated from the size of the same URL when it was last loaded unblocked; those sizes
+ * are kept in -Dnetwork.sizes (default target/network-sizes.properties). A baseline run with
+ * -Dnetwork.measure=true and without -Dnetwork.block only measures, and learns the sizes.
+ * Other browsers run without blocking.
+ */
+public class NetworkBlocker {
+
+    private static final Path SIZES_FILE = Paths.get(System.getProperty("network.sizes", "target/network-sizes.properties"));
+    private static final boolean MEASURE = Boolean.getBoolean("network.measure");
+    private static final int MAX_SIZES = 10000;
+
+    /**
+     * Blocking state of one browser session.
+     */
+    private static class Session {
+        final DevTools devTools;
+        volatile NetworkRules rules = NetworkRules.NONE;
+        List<Map<String, Object>> patterns = Collections.emptyList();
+        final Map<String, String> urls = new ConcurrentHashMap<>();
+        final AtomicLong blockedRequests = new AtomicLong();
+        final AtomicLong blockedBytes = new AtomicLong();
+        final AtomicLong loadedBytes = new AtomicLong();
+
+        Session(DevTools devTools) {
+            this.devTools = devTools;
+        }
+    }
+
+    private static final Map<WebDriver, Session> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ThreadLocal<Session> threadSession = new ThreadLocal<>();
+
+    // Encoded size of each URL (without query string) seen loading unblocked
+    private static final Map<String, Long> sizes = loadSizes();
+
+    private static final LongAdder blockedCount = new LongAdder();
+    private static final LongAdder blockedByteCount = new LongAdder();
+    private static final LongAdder loadedByteCount = new LongAdder();
+    private static volatile boolean unsupportedReported;
+
+    /**
+     * Applies a scenario's rules to its driver. A pooled driver that had other rules is
+     * switched over; a driver without DevTools support is left alone.
+     *
+     * @param driver Driver of the current thread
+     * @param rules Rules of the current scenario
+     */
+    public static void attach(WebDriver driver, NetworkRules rules) {
+        Session session = sessions.get(driver);
+        if (session == null) {
+            if (rules.isEmpty() && !MEASURE) {
+                return;
+            }
+            if (!(driver instanceof HasDevTools)) {
+                if (!unsupportedReported) {
+                    unsupportedReported = true;
+                    System.err.println("Request blocking needs Chrome or Edge, " + driver.getClass().getSimpleName()
+                            + " runs without it");
+                }
+                return;
+            }
+            try {
+                session = open((HasDevTools) driver);
+            } catch (DevToolsException e) {
+                System.err.println("Could not open a DevTools session, running without request blocking: " + e.getMessage());
+                return;
+            }
+            sessions.put(driver, session);
+        }
+
+        session.rules = rules;
+        List<Map<String, Object>> patterns = rules.fetchPatterns();
+        if (!patterns.equals(session.patterns)) {
+            if (patterns.isEmpty()) {
+                session.devTools.send(new Command<Void>("Fetch.disable", Collections.emptyMap()));
+            } else {
+                session.devTools.send(new Command<Void>("Fetch.enable", Collections.singletonMap("patterns", patterns)));
+            }
+            session.patterns = patterns;
+        }
+        session.blockedRequests.set(0);
+        session.blockedBytes.set(0);
+        session.loadedBytes.set(0);
+        threadSession.set(session);
+    }
+
+    private static Session open(HasDevTools driver) {
+        DevTools devTools = driver.getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        Session session = new Session(devTools);
+
+        devTools.addListener(new Event<>("Fetch.requestPaused", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                params -> onRequestPaused(session, params));
+
+        // Loaded sizes are learned for the estimate of what blocking the same URL saves
+        devTools.send(new Command<Void>("Network.enable", Collections.emptyMap()));
+        devTools.addListener(new Event<>("Network.responseReceived", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                params -> {
+                    Object response = params.get("response");
+                    if (response instanceof Map) {
+                        session.urls.put(String.valueOf(params.get("requestId")), String.valueOf(((Map<?, ?>) response).get("url")));
+                    }
+                });
+        devTools.addListener(new Event<>("Network.loadingFinished", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                params -> {
+                    String url = session.urls.remove(String.valueOf(params.get("requestId")));
+                    long bytes = ((Number) params.getOrDefault("encodedDataLength", 0)).longValue();
+                    session.loadedBytes.addAndGet(bytes);
+                    loadedByteCount.add(bytes);
+                    if (url != null && bytes > 0 && (sizes.size() < MAX_SIZES || sizes.containsKey(sizeKey(url)))) {
+                        sizes.put(sizeKey(url), bytes);
+                    }
+                });
+        devTools.addListener(new Event<>("Network.loadingFailed", input -> input.<Map<String, Object>>read(Json.MAP_TYPE)),
+                params -> session.urls.remove(String.valueOf(params.get("requestId"))));
+        return session;
+    }
+
+    private static void onRequestPaused(Session session, Map<String, Object> params) {
+        Object requestId = params.get("requestId");
+        Object request = params.get("request");
+        String url = request instanceof Map ? String.valueOf(((Map<?, ?>) request).get("url")) : "";
+        try {
+            if (session.rules.isAllowed(url)) {
+                session.devTools.send(new Command<Void>("Fetch.continueRequest", Collections.singletonMap("requestId", requestId)));
+                return;
+            }
+            Map<String, Object> fail = new HashMap<>();
+            fail.put("requestId", requestId);
+            fail.put("errorReason", "BlockedByClient");
+            session.devTools.send(new Command<Void>("Fetch.failRequest", fail));
+
+            long bytes = sizes.getOrDefault(sizeKey(url), 0L);
+            session.blockedRequests.incrementAndGet();
+            session.blockedBytes.addAndGet(bytes);
+            blockedCount.increment();
+            blockedByteCount.add(bytes);
+        } catch (DevToolsException e) {
+            // The page or session went away while the request was paused
+        }
+    }
+
+    /**
+     * Ends the current scenario's counting.
+     *
+     * @return Blocked requests and bytes of the scenario, or null if its driver was not attached
+     */
+    public static String finishScenario() {
+        Session session = threadSession.get();
+        threadSession.remove();
+        if (session == null) {
+            return null;
+        }
+        return "Network: blocked " + session.blockedRequests.get() + " requests (~"
+                + session.blockedBytes.get() / 1024 + " KB), loaded " + session.loadedBytes.get() / 1024 + " KB"
+                + " [" + session.rules + "]";
+    }
+
+    /**
+     * Saves the learned URL sizes for the next run's blocked-bytes estimates.
+     */
+    public static void saveSizes() {
+        if (sizes.isEmpty()) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, Long> entry : sizes.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        try {
+            Path dir = SIZES_FILE.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            try (OutputStream out = Files.newOutputStream(SIZES_FILE)) {
+                properties.store(out, "Encoded sizes of loaded URLs, see NetworkBlocker");
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write network sizes " + SIZES_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> loadSizes() {
+        Map<String, Long> loaded = new ConcurrentHashMap<>();
+        if (Files.exists(SIZES_FILE)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(SIZES_FILE)) {
+                properties.load(in);
+                for (String url : properties.stringPropertyNames()) {
+                    loaded.put(url, Long.parseLong(properties.getProperty(url)));
+                }
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Could not read network sizes " + SIZES_FILE + ": " + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    private static String sizeKey(String url) {
+        int query = url.indexOf('?');
+        return query >= 0 ? url.substring(0, query) : url;
+    }
+
+    /**
+     * Returns a one-line summary of request blocking.
+     */
+    public static String statsSummary() {
+        return "NetworkBlocker: blocked=" + blockedCount.sum()
+                + ", blockedKB~" + blockedByteCount.sum() / 1024
+                + ", loadedKB=" + loadedByteCount.sum() / 1024
+                + ", sessions=" + sessions.size();
+    }
+}
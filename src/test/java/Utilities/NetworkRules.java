@@ -0,0 +1,175 @@
+package Utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * NetworkRules decides which requests NetworkBlocker blocks for a scenario.
+ *
+ * Rules are read from a properties file (-Dnetwork.rules, default
+ * src/test/resources/network-rules.properties) with comma separated URL patterns,
+ * where * matches any characters and ? one character:
+ *
+ * <pre>
+ * block = *google-analytics.com*, *doubleclick.net*
+ * allow = *cdn.example.com/app*
+ * media = false
+ * &#64;checkout.allow = *js.stripe.com*
+ * &#64;catalog.media = true
+ * </pre>
+ *
+ * The plain keys apply to every scenario. Keys starting with a tag apply to scenarios with
+ * that tag, directly or through their feature, and add to the plain rules. Allow patterns
+ * win over block patterns. media = true also blocks images and audio/video.
+ * Blocking is off unless -Dnetwork.block=true; -Dnetwork.blockMedia=true turns media
+ * blocking on for all scenarios.
+ */
+public class NetworkRules {
+
+    /** Rules that block nothing */
+    public static final NetworkRules NONE = new NetworkRules(Collections.emptyList(), Collections.emptyList(), false);
+
+    private static final boolean ENABLED = Boolean.getBoolean("network.block");
+    private static final boolean BLOCK_MEDIA = Boolean.getBoolean("network.blockMedia");
+    private static final Properties RULES = load(Paths.get(System.getProperty("network.rules",
+            "src/test/resources/network-rules.properties")));
+
+    private final List<String> block;
+    private final List<String> allow;
+    private final List<Pattern> allowPatterns;
+    private final boolean media;
+
+    private NetworkRules(List<String> block, List<String> allow, boolean media) {
+        this.block = block;
+        this.allow = allow;
+        this.media = media;
+        this.allowPatterns = new ArrayList<>(allow.size());
+        for (String pattern : allow) {
+            allowPatterns.add(toRegex(pattern));
+        }
+    }
+
+    /**
+     * @param tags Tags of the scenario, including feature tags
+     * @return Plain rules plus the rules of every matching tag, or NONE when blocking is off
+     */
+    public static NetworkRules forTags(Collection<String> tags) {
+        if (!ENABLED) {
+            return NONE;
+        }
+        List<String> block = new ArrayList<>(split(RULES.getProperty("block")));
+        List<String> allow = new ArrayList<>(split(RULES.getProperty("allow")));
+        boolean media = BLOCK_MEDIA || Boolean.parseBoolean(RULES.getProperty("media"));
+        for (String tag : tags) {
+            String prefix = tag.toLowerCase(Locale.ROOT) + ".";
+            block.addAll(split(RULES.getProperty(prefix + "block")));
+            allow.addAll(split(RULES.getProperty(prefix + "allow")));
+            media |= Boolean.parseBoolean(RULES.getProperty(prefix + "media"));
+        }
+        return new NetworkRules(block, allow, media);
+    }
+
+    /**
+     * @return true if these rules block nothing
+     */
+    public boolean isEmpty() {
+        return block.isEmpty() && !media;
+    }
+
+    /**
+     * @param url Requested URL
+     * @return true if an allow pattern matches the URL
+     */
+    public boolean isAllowed(String url) {
+        for (Pattern pattern : allowPatterns) {
+            if (pattern.matcher(url).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Request patterns for the CDP Fetch.enable command, one per block pattern
+     *         plus image and media resource types when media is blocked
+     */
+    List<Map<String, Object>> fetchPatterns() {
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        for (String pattern : block) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("urlPattern", pattern);
+            entry.put("requestStage", "Request");
+            patterns.add(entry);
+        }
+        if (media) {
+            for (String type : new String[]{"Image", "Media"}) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("resourceType", type);
+                entry.put("requestStage", "Request");
+                patterns.add(entry);
+            }
+        }
+        return patterns;
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : value.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(pattern.trim());
+            }
+        }
+        return patterns;
+    }
+
+    private static Properties load(Path file) {
+        Properties rules = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                Properties raw = new Properties();
+                raw.load(in);
+                // Tags are matched case-insensitively
+                for (String key : raw.stringPropertyNames()) {
+                    rules.setProperty(key.toLowerCase(Locale.ROOT), raw.getProperty(key));
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read network rules " + file + ": " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        return "block=" + block + ", allow=" + allow + ", media=" + media;
+    }
+}
@@ -0,0 +1,126 @@
+package Utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * PageLoad opens pages under the page-load strategy chosen with -Ddriver.pageLoad
+ * (normal, eager or none) and waits for the page object's own readiness condition,
+ * e.g. the login form being clickable, instead of every image and script of the page.
+ *
+ * With eager or none, the time between the page becoming ready and its load event is what
+ * the normal strategy would have waited on top. It is read from the Navigation Timing API
+ * once the load event has happened (at the next navigation or the end of the scenario),
+ * and recorded per page in Metrics as PageLoad.saved:&lt;page&gt;.
+ */
+public class PageLoad {
+
+    /** Page-load strategy of the browsers */
+    public static final PageLoadStrategy STRATEGY = strategy(System.getProperty("driver.pageLoad", "normal"));
+
+    // [timeOrigin, readyAt] of the last page the thread opened, both in page milliseconds
+    private static final String READY_SCRIPT = "return [performance.timeOrigin, performance.now()];";
+
+    // [timeOrigin, loadEventEnd], loadEventEnd is 0 until the load event finished
+    private static final String LOAD_SCRIPT =
+            "var n = performance.getEntriesByType('navigation')[0];" +
+            "return [performance.timeOrigin, n ? n.loadEventEnd : 0];";
+
+    /**
+     * A page whose load event is still to be compared with its ready time.
+     */
+    private static class PendingPage {
+        final String name;
+        final double timeOrigin;
+        final double readyAt;
+
+        PendingPage(String name, double timeOrigin, double readyAt) {
+            this.name = name;
+            this.timeOrigin = timeOrigin;
+            this.readyAt = readyAt;
+        }
+    }
+
+    private static final ThreadLocal<PendingPage> pending = new ThreadLocal<>();
+
+    private static final LongAdder openCount = new LongAdder();
+    private static final LongAdder measuredCount = new LongAdder();
+    private static final LongAdder savedMillis = new LongAdder();
+
+    /**
+     * Navigates to a URL and waits until the page's readiness condition holds.
+     *
+     * @param driver Driver to navigate
+     * @param url URL to open
+     * @param pageName Name the timings are recorded under, e.g. DialogueContent
+     * @param readiness Condition that holds once the page's critical elements are interactive, or null
+     */
+    public static void open(WebDriver driver, String url, String pageName, Function<? super WebDriver, ?> readiness) {
+        finish();
+        DriverPool.noteOrigin(driver, url);
+        Metrics.time(pageName + ".open", () -> {
+            driver.get(url);
+            if (readiness != null) {
+                WaitPolicy.until(readiness, pageName + " ready", WaitPolicy.DEFAULT_TIMEOUT);
+            }
+        });
+        openCount.increment();
+
+        if (STRATEGY != PageLoadStrategy.NORMAL && BaseDriver.supportsJavascript(driver)) {
+            List<?> ready = (List<?>) ((JavascriptExecutor) driver).executeScript(READY_SCRIPT);
+            pending.set(new PendingPage(pageName, ((Number) ready.get(0)).doubleValue(), ((Number) ready.get(1)).doubleValue()));
+        }
+    }
+
+    /**
+     * Records the time saved on the thread's last opened page, if it has finished loading by now.
+     * Called before the next navigation and at the end of a scenario, while the driver is still open.
+     */
+    public static void finish() {
+        PendingPage page = pending.get();
+        if (page == null) {
+            return;
+        }
+        pending.remove();
+        try {
+            List<?> load = (List<?>) ((JavascriptExecutor) BaseDriver.getDriver()).executeScript(LOAD_SCRIPT);
+            double loadEventEnd = ((Number) load.get(1)).doubleValue();
+            // Only the same document, and only once its load event is over
+            if (((Number) load.get(0)).doubleValue() == page.timeOrigin && loadEventEnd > 0) {
+                long saved = Math.max(0, Math.round(loadEventEnd - page.readyAt));
+                Metrics.record(Metrics.ACTION, "PageLoad.saved:" + page.name, TimeUnit.MILLISECONDS.toNanos(saved));
+                measuredCount.increment();
+                savedMillis.add(saved);
+            }
+        } catch (WebDriverException e) {
+            // The page went away, nothing to measure
+        }
+    }
+
+    private static PageLoadStrategy strategy(String name) {
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(name.toLowerCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported driver.pageLoad: " + name + " (normal, eager or none)");
+        }
+        return strategy;
+    }
+
+    /**
+     * Returns a one-line summary of page loads.
+     */
+    public static String statsSummary() {
+        long measured = measuredCount.sum();
+        return "PageLoad: strategy=" + STRATEGY + ", opened=" + openCount.sum()
+                + ", measured=" + measured
+                + ", savedMs=" + savedMillis.sum()
+                + ", avgSavedMs=" + (measured == 0 ? 0 : savedMillis.sum() / measured);
+    }
+}
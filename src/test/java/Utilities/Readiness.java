@@ -0,0 +1,214 @@
+package Utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Readiness waits on signals from the page itself instead of sleeping for a fixed time.
+ * A small script that counts pending fetch/XHR requests and records the time of the last
+ * DOM mutation is registered to run at the start of every document in Chrome and Edge
+ * (see register), and installed into the page on first use everywhere else; the waits below
+ * poll those values inside the browser and return as soon as the signal is seen, never later
+ * than the given upper bound. Every wait records how long it actually took.
+ *
+ * Where the script is installed on first use (other browsers, windows opened by the page),
+ * requests started before that are not counted; the DOM quiet period covers their effects.
+ */
+public class Readiness {
+
+    /** Default upper bound for a readiness wait */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    // How long the DOM has to stay unchanged to count as quiet
+    private static final long QUIET_MILLIS = Long.getLong("readiness.quietMs", 250L);
+
+    private static final String INSTALL_SCRIPT =
+            "if (!window.__readiness) {" +
+            "  var r = window.__readiness = { pending: 0, lastMutation: Date.now() };" +
+            "  new MutationObserver(function () { r.lastMutation = Date.now(); })" +
+            "      .observe(document, { childList: true, subtree: true, attributes: true, characterData: true });" +
+            "  if (window.fetch) {" +
+            "    var originalFetch = window.fetch;" +
+            "    window.fetch = function () {" +
+            "      r.pending++;" +
+            "      return originalFetch.apply(this, arguments).finally(function () { r.pending--; });" +
+            "    };" +
+            "  }" +
+            "  var originalSend = XMLHttpRequest.prototype.send;" +
+            "  XMLHttpRequest.prototype.send = function () {" +
+            "    r.pending++;" +
+            "    this.addEventListener('loadend', function () { r.pending--; }, { once: true });" +
+            "    return originalSend.apply(this, arguments);" +
+            "  };" +
+            "}";
+
+    private static final String SETTLED_SCRIPT =
+            "var callback = arguments[arguments.length - 1];" +
+            "var quietMs = arguments[0], maxMs = arguments[1], network = arguments[2], dom = arguments[3];" +
+            INSTALL_SCRIPT +
+            "var r = window.__readiness, start = Date.now();" +
+            "(function check() {" +
+            "  var idle = !network || (r.pending <= 0 && document.readyState === 'complete');" +
+            "  var quiet = !dom || Date.now() - r.lastMutation >= quietMs;" +
+            "  if (idle && quiet) { callback(true); }" +
+            "  else if (Date.now() - start >= maxMs) { callback(false); }" +
+            "  else { setTimeout(check, 25); }" +
+            "})();";
+
+    private static final String TEXT_CHANGE_SCRIPT =
+            "var callback = arguments[arguments.length - 1];" +
+            "var element = arguments[0], previous = arguments[1], maxMs = arguments[2], start = Date.now();" +
+            "(function check() {" +
+            "  if (!element.isConnected || element.textContent.trim() !== previous) { callback(true); }" +
+            "  else if (Date.now() - start >= maxMs) { callback(false); }" +
+            "  else { setTimeout(check, 25); }" +
+            "})();";
+
+    private static final Map<String, WaitStats> stats = new ConcurrentHashMap<>();
+
+    private static class WaitStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Registers the readiness script to run before any script of every document the current
+     * window loads, so requests made while the page loads are counted as well. Only Chrome and
+     * Edge support this; other drivers fall back to installing the script on first use.
+     *
+     * @param driver WebDriver whose current window gets the script
+     */
+    public static void register(WebDriver driver) {
+        if (!(driver instanceof ChromiumDriver)) {
+            return;
+        }
+        try {
+            ((ChromiumDriver) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Collections.singletonMap("source", INSTALL_SCRIPT));
+        } catch (WebDriverException e) {
+            System.err.println("Failed to register the readiness script, installing it on first use: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits until there are no pending fetch/XHR requests and the document has finished loading.
+     *
+     * @param driver WebDriver to wait on
+     * @param max Upper bound for the wait
+     * @return true if the page became idle, false if the upper bound was reached
+     */
+    public static boolean awaitNetworkIdle(WebDriver driver, Duration max) {
+        return awaitSettled("networkIdle", driver, max, true, false);
+    }
+
+    /**
+     * Waits until the DOM has not changed for the configured quiet period.
+     *
+     * @param driver WebDriver to wait on
+     * @param max Upper bound for the wait
+     * @return true if the DOM became quiet, false if the upper bound was reached
+     */
+    public static boolean awaitDomQuiet(WebDriver driver, Duration max) {
+        return awaitSettled("domQuiet", driver, max, false, true);
+    }
+
+    /**
+     * Waits until the network is idle and the DOM is quiet.
+     *
+     * @param driver WebDriver to wait on
+     * @param max Upper bound for the wait
+     * @return true if the page settled, false if the upper bound was reached
+     */
+    public static boolean awaitSettled(WebDriver driver, Duration max) {
+        return awaitSettled("settled", driver, max, true, true);
+    }
+
+    /**
+     * Waits until the trimmed text of an element differs from the given value,
+     * e.g. a cart badge count after adding an item. An element that is removed from
+     * the page counts as changed.
+     *
+     * @param element WebElement to watch
+     * @param previousText Text before the action
+     * @param max Upper bound for the wait
+     * @return true if the text changed, false if the upper bound was reached
+     */
+    public static boolean awaitTextChange(WebElement element, String previousText, Duration max) {
+        if (!BaseDriver.supportsJavascript(BaseDriver.getDriver())) {
+            // Without JavaScript the page cannot change after it has loaded
+            return !element.getText().trim().equals(previousText.trim());
+        }
+        long start = System.nanoTime();
+        boolean satisfied;
+        try {
+            satisfied = Boolean.TRUE.equals(((JavascriptExecutor) BaseDriver.getDriver()).executeAsyncScript(
+                    TEXT_CHANGE_SCRIPT, element, previousText.trim(), max.toMillis()));
+        } catch (WebDriverException e) {
+            // The element went stale or the page navigated away, either way the text is no longer the same
+            satisfied = true;
+        }
+        record("textChange", System.nanoTime() - start, satisfied);
+        return satisfied;
+    }
+
+    /**
+     * Returns a summary of the observed wait times per signal.
+     */
+    public static String statsSummary() {
+        StringBuilder summary = new StringBuilder("Readiness:");
+        for (Map.Entry<String, WaitStats> entry : new TreeMap<>(stats).entrySet()) {
+            WaitStats s = entry.getValue();
+            long count = s.count.sum();
+            summary.append(' ').append(entry.getKey())
+                    .append("[count=").append(count)
+                    .append(", timeouts=").append(s.timeouts.sum())
+                    .append(", avgMs=").append(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(s.totalNanos.sum() / count))
+                    .append(", maxMs=").append(TimeUnit.NANOSECONDS.toMillis(s.maxNanos.get()))
+                    .append(']');
+        }
+        return summary.toString();
+    }
+
+    private static boolean awaitSettled(String signal, WebDriver driver, Duration max, boolean network, boolean dom) {
+        if (!BaseDriver.supportsJavascript(driver)) {
+            // No scripts run, so the page is settled once it has loaded
+            return true;
+        }
+        long start = System.nanoTime();
+        boolean satisfied;
+        try {
+            satisfied = Boolean.TRUE.equals(((JavascriptExecutor) driver).executeAsyncScript(
+                    SETTLED_SCRIPT, QUIET_MILLIS, max.toMillis(), network, dom));
+        } catch (WebDriverException e) {
+            // Navigation unloads the document the script was waiting on
+            System.err.println("Readiness wait '" + signal + "' interrupted: " + e.getMessage());
+            satisfied = false;
+        }
+        record(signal, System.nanoTime() - start, satisfied);
+        return satisfied;
+    }
+
+    private static void record(String signal, long nanos, boolean satisfied) {
+        WaitStats s = stats.computeIfAbsent(signal, k -> new WaitStats());
+        s.count.increment();
+        s.totalNanos.add(nanos);
+        s.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (!satisfied) {
+            s.timeouts.increment();
+        }
+    }
+}
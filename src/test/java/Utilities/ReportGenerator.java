@@ -0,0 +1,856 @@
+package Utilities;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import io.cucumber.core.plugin.HtmlFormatter;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.plugin.event.EventHandler;
+import io.cucumber.plugin.event.EventPublisher;
+import org.openqa.selenium.json.Json;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ReportGenerator turns the NDJSON message files written by StreamingReportPlugin into
+ * the reports the runners used to produce with formatter plugins during the run:
+ * cucumber-report.html, cucumber.json, cucumber-results.xml, cucumber-usage.json and
+ * the Extent report (extent-report/index.html).
+ *
+ * The HTML report is rendered by Cucumber's own HtmlFormatter, replaying the messages.
+ * The other reports are built from the messages read as plain JSON maps. A scenario run
+ * more than once, retried by Cucumber or rerun by BaseTestRunner, is reported once with
+ * its final result and its number of attempts: "attempts" in the JSON report, and the
+ * earlier failures as flakyFailure or rerunFailure elements in the JUnit report, as in
+ * Surefire's rerun reports. Several message files (e.g. one per shard) can be combined
+ * into one JSON, JUnit, usage and Extent report.
+ */
+public class ReportGenerator {
+
+    public static final String DEFAULT_MESSAGES = "target/cucumber-messages.ndjson";
+    public static final String MESSAGES_FILE = "cucumber-messages.ndjson";
+    public static final String HTML_REPORT = "cucumber-report.html";
+    public static final String JSON_REPORT = "cucumber.json";
+    public static final String JUNIT_REPORT = "cucumber-results.xml";
+    public static final String USAGE_REPORT = "cucumber-usage.json";
+    public static final String EXTENT_REPORT = "extent-report/index.html";
+
+    // Cucumber's status ranking, the worst step status is the scenario status
+    private static final List<String> STATUS_ORDER =
+            Arrays.asList("UNKNOWN", "PASSED", "SKIPPED", "PENDING", "UNDEFINED", "AMBIGUOUS", "FAILED");
+
+    /**
+     * Scenario counts of the generated reports.
+     */
+    public static class Totals {
+        public int scenarios;
+        public int passed;
+        public int failed;
+        public int skipped;
+        /** Scenarios that passed after failing an earlier attempt, counted in passed as well */
+        public int flaky;
+
+        @Override
+        public String toString() {
+            return "scenarios=" + scenarios + ", passed=" + passed + ", failed=" + failed + ", skipped=" + skipped
+                    + ", flaky=" + flaky;
+        }
+    }
+
+    /**
+     * Generates all reports for one run.
+     *
+     * @param messages NDJSON message file of the run
+     * @param outputDir Directory the reports are written to
+     * @return Scenario counts
+     */
+    public static Totals generate(Path messages, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        generateHtml(messages, outputDir.resolve(HTML_REPORT));
+        return generateReports(Collections.singletonList(messages), outputDir);
+    }
+
+    /**
+     * Renders the Cucumber HTML report from one message file.
+     *
+     * @param messages NDJSON message file of the run
+     * @param html HTML file to write
+     */
+    public static void generateHtml(Path messages, Path html) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(messages, StandardCharsets.UTF_8);
+             OutputStream out = Files.newOutputStream(html)) {
+            ReplayPublisher publisher = new ReplayPublisher();
+            new HtmlFormatter(out).setEventPublisher(publisher);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    publisher.send(StreamingReportPlugin.MAPPER.readValue(line, Envelope.class));
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the JSON, JUnit, usage and Extent reports from one or more message files.
+     *
+     * @param messageFiles NDJSON message files, combined into one report
+     * @param outputDir Directory the reports are written to
+     * @return Scenario counts
+     */
+    public static Totals generateReports(List<Path> messageFiles, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        Run run = new Run();
+        for (Path messages : messageFiles) {
+            run.read(messages);
+        }
+
+        Map<String, List<Execution>> byFeature = run.finalExecutionsByFeature();
+        writeJson(run, byFeature, outputDir.resolve(JSON_REPORT));
+        Totals totals = writeJUnit(run, byFeature, outputDir.resolve(JUNIT_REPORT));
+        writeUsage(run, byFeature, outputDir.resolve(USAGE_REPORT));
+        writeExtent(run, byFeature, outputDir.resolve(EXTENT_REPORT));
+        return totals;
+    }
+
+    /**
+     * Everything needed from the messages, indexed by message id.
+     */
+    private static class Run {
+        final Json json = new Json();
+        final Map<String, Map<String, Object>> features = new HashMap<>();
+        final Map<String, Map<String, Object>> astNodes = new HashMap<>();
+        final Map<String, String> backgroundOfStep = new HashMap<>();
+        final Map<String, Map<String, Object>> pickles = new HashMap<>();
+        final Map<String, Map<String, Object>> pickleSteps = new HashMap<>();
+        final Map<String, Map<String, Object>> stepDefinitions = new LinkedHashMap<>();
+        final Map<String, Map<String, Object>> hooks = new HashMap<>();
+        final Map<String, Map<String, Object>> testCases = new HashMap<>();
+        final Map<String, Execution> executions = new LinkedHashMap<>();
+
+        void read(Path messages) throws IOException {
+            try (BufferedReader reader = Files.newBufferedReader(messages, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty()) {
+                        accept(json.toType(line, Json.MAP_TYPE));
+                    }
+                }
+            }
+        }
+
+        void accept(Map<String, Object> envelope) {
+            if (envelope.containsKey("gherkinDocument")) {
+                Map<String, Object> document = map(envelope.get("gherkinDocument"));
+                Map<String, Object> feature = map(document.get("feature"));
+                if (feature != null) {
+                    features.put(string(document.get("uri")), feature);
+                    indexChildren(list(feature.get("children")));
+                }
+            } else if (envelope.containsKey("pickle")) {
+                Map<String, Object> pickle = map(envelope.get("pickle"));
+                pickles.put(string(pickle.get("id")), pickle);
+                for (Map<String, Object> step : list(pickle.get("steps"))) {
+                    pickleSteps.put(string(step.get("id")), step);
+                }
+            } else if (envelope.containsKey("stepDefinition")) {
+                Map<String, Object> stepDefinition = map(envelope.get("stepDefinition"));
+                stepDefinitions.put(string(stepDefinition.get("id")), stepDefinition);
+            } else if (envelope.containsKey("hook")) {
+                Map<String, Object> hook = map(envelope.get("hook"));
+                hooks.put(string(hook.get("id")), hook);
+            } else if (envelope.containsKey("testCase")) {
+                Map<String, Object> testCase = map(envelope.get("testCase"));
+                testCases.put(string(testCase.get("id")), testCase);
+            } else if (envelope.containsKey("testCaseStarted")) {
+                Map<String, Object> started = map(envelope.get("testCaseStarted"));
+                executions.put(string(started.get("id")), new Execution(started));
+            } else if (envelope.containsKey("testStepFinished")) {
+                Map<String, Object> finished = map(envelope.get("testStepFinished"));
+                Execution execution = executions.get(string(finished.get("testCaseStartedId")));
+                if (execution != null) {
+                    execution.results.put(string(finished.get("testStepId")), map(finished.get("testStepResult")));
+                }
+            } else if (envelope.containsKey("testCaseFinished")) {
+                Map<String, Object> finished = map(envelope.get("testCaseFinished"));
+                Execution execution = executions.get(string(finished.get("testCaseStartedId")));
+                if (execution != null) {
+                    execution.endNanos = nanos(map(finished.get("timestamp")));
+                }
+            }
+        }
+
+        private void indexChildren(List<Map<String, Object>> children) {
+            for (Map<String, Object> child : children) {
+                Map<String, Object> background = map(child.get("background"));
+                if (background != null) {
+                    astNodes.put(string(background.get("id")), background);
+                    for (Map<String, Object> step : list(background.get("steps"))) {
+                        astNodes.put(string(step.get("id")), step);
+                        backgroundOfStep.put(string(step.get("id")), string(background.get("id")));
+                    }
+                }
+                Map<String, Object> scenario = map(child.get("scenario"));
+                if (scenario != null) {
+                    astNodes.put(string(scenario.get("id")), scenario);
+                    for (Map<String, Object> step : list(scenario.get("steps"))) {
+                        astNodes.put(string(step.get("id")), step);
+                    }
+                    for (Map<String, Object> examples : list(scenario.get("examples"))) {
+                        for (Map<String, Object> row : list(examples.get("tableBody"))) {
+                            astNodes.put(string(row.get("id")), row);
+                        }
+                    }
+                }
+                Map<String, Object> rule = map(child.get("rule"));
+                if (rule != null) {
+                    indexChildren(list(rule.get("children")));
+                }
+            }
+        }
+
+        /**
+         * @return Final attempts of every executed scenario, grouped by feature URI in the order
+         *         of their first attempts. Each holds the scenario's earlier attempts.
+         */
+        Map<String, List<Execution>> finalExecutionsByFeature() {
+            // Every attempt of a pickle is a test case of its own, the last one started is final
+            Map<String, Execution> finalByPickle = new LinkedHashMap<>();
+            for (Execution execution : executions.values()) {
+                if (!testCases.containsKey(execution.testCaseId)) {
+                    continue;
+                }
+                Execution earlier = finalByPickle.put(string(testCases.get(execution.testCaseId).get("pickleId")), execution);
+                if (earlier != null) {
+                    execution.earlierAttempts.addAll(earlier.earlierAttempts);
+                    execution.earlierAttempts.add(earlier);
+                    earlier.earlierAttempts.clear();
+                }
+            }
+
+            Map<String, List<Execution>> byFeature = new LinkedHashMap<>();
+            for (Execution execution : finalByPickle.values()) {
+                String uri = string(pickleOf(execution).get("uri"));
+                byFeature.computeIfAbsent(uri, u -> new ArrayList<>()).add(execution);
+            }
+            return byFeature;
+        }
+
+        Map<String, Object> pickleOf(Execution execution) {
+            return pickles.get(string(testCases.get(execution.testCaseId).get("pickleId")));
+        }
+
+        List<Map<String, Object>> testStepsOf(Execution execution) {
+            return list(testCases.get(execution.testCaseId).get("testSteps"));
+        }
+
+        /**
+         * @return Scenario line, or the example row line for a scenario outline
+         */
+        long lineOf(Map<String, Object> pickle) {
+            List<Object> astNodeIds = rawList(pickle.get("astNodeIds"));
+            Map<String, Object> node = astNodes.get(string(astNodeIds.get(astNodeIds.size() - 1)));
+            return node == null ? 0 : line(node);
+        }
+
+        Map<String, Object> scenarioOf(Map<String, Object> pickle) {
+            Map<String, Object> scenario = astNodes.get(string(rawList(pickle.get("astNodeIds")).get(0)));
+            return scenario == null ? Collections.emptyMap() : scenario;
+        }
+
+        /**
+         * @return Gherkin step of a pickle step
+         */
+        Map<String, Object> astStepOf(Map<String, Object> pickleStep) {
+            Map<String, Object> step = astNodes.get(string(rawList(pickleStep.get("astNodeIds")).get(0)));
+            return step == null ? Collections.emptyMap() : step;
+        }
+
+        /**
+         * @return Step definition or hook method, e.g. StepDefinitions.LoginSteps.login()
+         */
+        String locationOf(Map<String, Object> testStep) {
+            Map<String, Object> definition = null;
+            if (testStep.containsKey("hookId")) {
+                definition = hooks.get(string(testStep.get("hookId")));
+            } else {
+                List<Object> ids = rawList(testStep.get("stepDefinitionIds"));
+                if (ids.size() == 1) {
+                    definition = stepDefinitions.get(string(ids.get(0)));
+                }
+            }
+            if (definition == null) {
+                return null;
+            }
+            Map<String, Object> reference = map(definition.get("sourceReference"));
+            Map<String, Object> method = reference == null ? null : map(reference.get("javaMethod"));
+            if (method == null) {
+                return reference == null ? null : string(reference.get("uri"));
+            }
+            return method.get("className") + "." + method.get("methodName")
+                    + "(" + String.join(",", strings(method.get("methodParameterTypes"))) + ")";
+        }
+    }
+
+    /**
+     * One attempt of a test case, with its step results.
+     */
+    private static class Execution {
+        final String testCaseId;
+        final long startNanos;
+        long endNanos;
+        final Map<String, Map<String, Object>> results = new HashMap<>();
+        // Earlier attempts of the same scenario, oldest first, kept on the final attempt
+        final List<Execution> earlierAttempts = new ArrayList<>();
+
+        Execution(Map<String, Object> started) {
+            this.testCaseId = string(started.get("testCaseId"));
+            this.startNanos = nanos(map(started.get("timestamp")));
+        }
+
+        int attempts() {
+            return earlierAttempts.size() + 1;
+        }
+
+        /**
+         * @return Error message of the first step with one, or null
+         */
+        String message(List<Map<String, Object>> testSteps) {
+            for (Map<String, Object> testStep : testSteps) {
+                Map<String, Object> result = results.get(string(testStep.get("id")));
+                if (result != null && result.get("message") != null) {
+                    return string(result.get("message"));
+                }
+            }
+            return null;
+        }
+
+        String status(List<Map<String, Object>> testSteps) {
+            String worst = "PASSED";
+            for (Map<String, Object> testStep : testSteps) {
+                String status = statusOf(results.get(string(testStep.get("id"))));
+                if (STATUS_ORDER.indexOf(status) > STATUS_ORDER.indexOf(worst)) {
+                    worst = status;
+                }
+            }
+            return worst;
+        }
+
+        long durationNanos() {
+            long total = 0;
+            for (Map<String, Object> result : results.values()) {
+                total += nanos(map(result.get("duration")));
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Writes the report in Cucumber's JSON format, which ScenarioDurations reads back.
+     */
+    private static void writeJson(Run run, Map<String, List<Execution>> byFeature, Path target) throws IOException {
+        List<Map<String, Object>> features = new ArrayList<>();
+        for (Map.Entry<String, List<Execution>> entry : byFeature.entrySet()) {
+            Map<String, Object> gherkin = run.features.getOrDefault(entry.getKey(), Collections.emptyMap());
+            Map<String, Object> feature = new LinkedHashMap<>();
+            feature.put("uri", entry.getKey());
+            feature.put("id", id(string(gherkin.get("name"))));
+            feature.put("keyword", gherkin.get("keyword"));
+            feature.put("name", gherkin.get("name"));
+            feature.put("description", gherkin.getOrDefault("description", ""));
+            feature.put("line", line(gherkin));
+            feature.put("tags", tags(gherkin.get("tags")));
+
+            List<Map<String, Object>> elements = new ArrayList<>();
+            for (Execution execution : entry.getValue()) {
+                Map<String, Object> pickle = run.pickleOf(execution);
+                Map<String, Object> scenario = run.scenarioOf(pickle);
+
+                Map<String, Object> background = null;
+                Map<String, Object> element = new LinkedHashMap<>();
+                element.put("start_timestamp", Instant.ofEpochSecond(0, execution.startNanos).toString());
+                element.put("id", id(string(gherkin.get("name"))) + ";" + id(string(pickle.get("name"))));
+                element.put("keyword", scenario.get("keyword"));
+                element.put("name", pickle.get("name"));
+                element.put("description", scenario.getOrDefault("description", ""));
+                element.put("line", run.lineOf(pickle));
+                element.put("type", "scenario");
+                element.put("tags", tags(pickle.get("tags")));
+                if (execution.attempts() > 1) {
+                    element.put("attempts", execution.attempts());
+                }
+
+                List<Map<String, Object>> before = new ArrayList<>();
+                List<Map<String, Object>> steps = new ArrayList<>();
+                List<Map<String, Object>> after = new ArrayList<>();
+                boolean stepSeen = false;
+                for (Map<String, Object> testStep : run.testStepsOf(execution)) {
+                    Map<String, Object> result = jsonResult(execution.results.get(string(testStep.get("id"))));
+                    Map<String, Object> match = new LinkedHashMap<>();
+                    String location = run.locationOf(testStep);
+                    if (location != null) {
+                        match.put("location", location);
+                    }
+
+                    if (testStep.containsKey("hookId")) {
+                        Map<String, Object> hook = new LinkedHashMap<>();
+                        hook.put("match", match);
+                        hook.put("result", result);
+                        (stepSeen ? after : before).add(hook);
+                        continue;
+                    }
+
+                    stepSeen = true;
+                    Map<String, Object> pickleStep = run.pickleSteps.get(string(testStep.get("pickleStepId")));
+                    Map<String, Object> astStep = run.astStepOf(pickleStep);
+                    Map<String, Object> step = new LinkedHashMap<>();
+                    step.put("keyword", astStep.get("keyword"));
+                    step.put("name", pickleStep.get("text"));
+                    step.put("line", line(astStep));
+                    step.put("match", match);
+                    step.put("result", result);
+
+                    String backgroundId = run.backgroundOfStep.get(string(rawList(pickleStep.get("astNodeIds")).get(0)));
+                    if (backgroundId != null) {
+                        if (background == null) {
+                            Map<String, Object> gherkinBackground = run.astNodes.get(backgroundId);
+                            background = new LinkedHashMap<>();
+                            background.put("keyword", gherkinBackground.get("keyword"));
+                            background.put("name", gherkinBackground.get("name"));
+                            background.put("description", gherkinBackground.getOrDefault("description", ""));
+                            background.put("line", line(gherkinBackground));
+                            background.put("type", "background");
+                            background.put("steps", new ArrayList<Map<String, Object>>());
+                        }
+                        listOf(background.get("steps")).add(step);
+                    } else {
+                        steps.add(step);
+                    }
+                }
+
+                if (background != null) {
+                    elements.add(background);
+                }
+                element.put("before", before);
+                element.put("steps", steps);
+                element.put("after", after);
+                elements.add(element);
+            }
+            feature.put("elements", elements);
+            features.add(feature);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(new Json().toJson(features));
+        }
+    }
+
+    private static Map<String, Object> jsonResult(Map<String, Object> testStepResult) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        String status = statusOf(testStepResult);
+        result.put("status", status.toLowerCase(Locale.ROOT));
+        if (testStepResult != null) {
+            long duration = nanos(map(testStepResult.get("duration")));
+            if (duration > 0) {
+                result.put("duration", duration);
+            }
+            if (testStepResult.get("message") != null) {
+                result.put("error_message", testStepResult.get("message"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes a JUnit XML report, streaming test cases to the file.
+     */
+    private static Totals writeJUnit(Run run, Map<String, List<Execution>> byFeature, Path target) throws IOException {
+        Totals totals = new Totals();
+        long totalNanos = 0;
+        for (List<Execution> executions : byFeature.values()) {
+            for (Execution execution : executions) {
+                String status = execution.status(run.testStepsOf(execution));
+                totals.scenarios++;
+                if ("PASSED".equals(status)) {
+                    totals.passed++;
+                    if (execution.attempts() > 1) {
+                        totals.flaky++;
+                    }
+                } else if ("SKIPPED".equals(status)) {
+                    totals.skipped++;
+                } else {
+                    totals.failed++;
+                }
+                totalNanos += execution.durationNanos();
+            }
+        }
+
+        try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            XMLStreamWriter xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeCharacters("\n");
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", "io.cucumber.core.plugin.JUnitFormatter");
+            xml.writeAttribute("tests", String.valueOf(totals.scenarios));
+            xml.writeAttribute("skipped", String.valueOf(totals.skipped));
+            xml.writeAttribute("failures", String.valueOf(totals.failed));
+            xml.writeAttribute("errors", "0");
+            xml.writeAttribute("time", seconds(totalNanos));
+            xml.writeCharacters("\n");
+
+            for (Map.Entry<String, List<Execution>> entry : byFeature.entrySet()) {
+                String featureName = string(run.features.getOrDefault(entry.getKey(), Collections.emptyMap()).get("name"));
+                for (Execution execution : entry.getValue()) {
+                    List<Map<String, Object>> testSteps = run.testStepsOf(execution);
+                    String status = execution.status(testSteps);
+
+                    xml.writeStartElement("testcase");
+                    xml.writeAttribute("classname", featureName);
+                    xml.writeAttribute("name", string(run.pickleOf(execution).get("name")));
+                    xml.writeAttribute("time", seconds(execution.durationNanos()));
+
+                    StringBuilder stepLog = new StringBuilder();
+                    String message = execution.message(testSteps);
+                    for (Map<String, Object> testStep : testSteps) {
+                        Map<String, Object> result = execution.results.get(string(testStep.get("id")));
+                        if (testStep.containsKey("pickleStepId")) {
+                            Map<String, Object> pickleStep = run.pickleSteps.get(string(testStep.get("pickleStepId")));
+                            String text = run.astStepOf(pickleStep).get("keyword") + string(pickleStep.get("text"));
+                            stepLog.append(String.format("%s%s%s%n", text,
+                                    ".".repeat(Math.max(3, 80 - text.length())), statusOf(result).toLowerCase(Locale.ROOT)));
+                        }
+                    }
+
+                    if ("SKIPPED".equals(status)) {
+                        xml.writeStartElement("skipped");
+                        if (message != null) {
+                            xml.writeAttribute("message", message);
+                        }
+                        xml.writeCData(stepLog.toString());
+                        xml.writeEndElement();
+                    } else if (!"PASSED".equals(status)) {
+                        xml.writeStartElement("failure");
+                        xml.writeAttribute("message", message != null ? firstLine(message) : "The scenario has " + status.toLowerCase(Locale.ROOT) + " steps");
+                        xml.writeAttribute("type", status.toLowerCase(Locale.ROOT));
+                        xml.writeCData(stepLog + (message != null ? "\nStackTrace:\n" + message : ""));
+                        xml.writeEndElement();
+                    } else {
+                        xml.writeStartElement("system-out");
+                        xml.writeCData(stepLog.toString());
+                        xml.writeEndElement();
+                    }
+                    writeEarlierFailures(xml, run, execution, "PASSED".equals(status) ? "flakyFailure" : "rerunFailure");
+                    xml.writeEndElement();
+                    xml.writeCharacters("\n");
+                }
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error writing JUnit report: " + e.getMessage(), e);
+        }
+        return totals;
+    }
+
+    /**
+     * Writes the failed earlier attempts of a scenario the way Surefire reports reruns.
+     *
+     * @param element flakyFailure if the final attempt passed, rerunFailure otherwise
+     */
+    private static void writeEarlierFailures(XMLStreamWriter xml, Run run, Execution execution, String element)
+            throws XMLStreamException {
+        for (Execution earlier : execution.earlierAttempts) {
+            List<Map<String, Object>> testSteps = run.testStepsOf(earlier);
+            String status = earlier.status(testSteps);
+            if ("PASSED".equals(status) || "SKIPPED".equals(status)) {
+                continue;
+            }
+            String message = earlier.message(testSteps);
+            xml.writeStartElement(element);
+            xml.writeAttribute("message", message != null ? firstLine(message) : "The scenario has " + status.toLowerCase(Locale.ROOT) + " steps");
+            xml.writeAttribute("type", status.toLowerCase(Locale.ROOT));
+            xml.writeAttribute("time", seconds(earlier.durationNanos()));
+            if (message != null) {
+                xml.writeStartElement("stackTrace");
+                xml.writeCData(message);
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        }
+    }
+
+    /**
+     * Writes the report in the format of Cucumber's usage plugin: the duration of every
+     * step per step definition, with their median and average.
+     */
+    private static void writeUsage(Run run, Map<String, List<Execution>> byFeature, Path target) throws IOException {
+        Map<String, Map<String, List<Map<String, Object>>>> usage = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Execution>> entry : byFeature.entrySet()) {
+            for (Execution execution : entry.getValue()) {
+                for (Map<String, Object> testStep : run.testStepsOf(execution)) {
+                    List<Object> ids = rawList(testStep.get("stepDefinitionIds"));
+                    Map<String, Object> result = execution.results.get(string(testStep.get("id")));
+                    if (ids.size() != 1 || result == null) {
+                        continue;
+                    }
+                    Map<String, Object> pickleStep = run.pickleSteps.get(string(testStep.get("pickleStepId")));
+                    Map<String, Object> duration = new LinkedHashMap<>();
+                    duration.put("duration", nanos(map(result.get("duration"))) / 1e9);
+                    duration.put("location", entry.getKey() + ":" + line(run.astStepOf(pickleStep)));
+                    usage.computeIfAbsent(string(ids.get(0)), id -> new LinkedHashMap<>())
+                            .computeIfAbsent(string(pickleStep.get("text")), text -> new ArrayList<>())
+                            .add(duration);
+                }
+            }
+        }
+
+        List<Map<String, Object>> stepDefinitions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, List<Map<String, Object>>>> entry : usage.entrySet()) {
+            Map<String, Object> definition = run.stepDefinitions.get(entry.getKey());
+            Map<String, Object> pattern = definition == null ? null : map(definition.get("pattern"));
+            List<Map<String, Object>> steps = new ArrayList<>();
+            for (Map.Entry<String, List<Map<String, Object>>> step : entry.getValue().entrySet()) {
+                double[] seconds = new double[step.getValue().size()];
+                double sum = 0;
+                for (int i = 0; i < seconds.length; i++) {
+                    seconds[i] = (Double) step.getValue().get(i).get("duration");
+                    sum += seconds[i];
+                }
+                Arrays.sort(seconds);
+                double median = seconds.length % 2 == 1 ? seconds[seconds.length / 2]
+                        : (seconds[seconds.length / 2 - 1] + seconds[seconds.length / 2]) / 2;
+
+                Map<String, Object> aggregated = new LinkedHashMap<>();
+                aggregated.put("median", median);
+                aggregated.put("average", sum / seconds.length);
+                Map<String, Object> stepUsage = new LinkedHashMap<>();
+                stepUsage.put("name", step.getKey());
+                stepUsage.put("aggregatedDurations", aggregated);
+                stepUsage.put("durations", step.getValue());
+                steps.add(stepUsage);
+            }
+            Map<String, Object> definitionUsage = new LinkedHashMap<>();
+            definitionUsage.put("source", pattern == null ? entry.getKey() : pattern.get("source"));
+            definitionUsage.put("steps", steps);
+            stepDefinitions.add(definitionUsage);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(new Json().toJson(stepDefinitions));
+        }
+    }
+
+    /**
+     * Writes the Extent Spark report: one test per feature with a node per scenario.
+     */
+    private static void writeExtent(Run run, Map<String, List<Execution>> byFeature, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(new ExtentSparkReporter(target.toFile()));
+
+        for (Map.Entry<String, List<Execution>> entry : byFeature.entrySet()) {
+            Map<String, Object> gherkin = run.features.getOrDefault(entry.getKey(), Collections.emptyMap());
+            ExtentTest feature = extent.createTest(gherkin.get("keyword") + ": " + gherkin.get("name"));
+            for (Execution execution : entry.getValue()) {
+                Map<String, Object> pickle = run.pickleOf(execution);
+                ExtentTest scenario = feature.createNode(run.scenarioOf(pickle).get("keyword") + ": " + pickle.get("name"));
+                for (String tag : strings(tagNames(pickle.get("tags")))) {
+                    scenario.assignCategory(tag);
+                }
+                scenario.getModel().setStartTime(new Date(execution.startNanos / 1_000_000));
+                scenario.getModel().setEndTime(new Date(execution.endNanos / 1_000_000));
+                if (execution.attempts() > 1) {
+                    scenario.log(Status.INFO, "Result of the last of " + execution.attempts() + " attempts");
+                }
+
+                for (Map<String, Object> testStep : run.testStepsOf(execution)) {
+                    Map<String, Object> result = execution.results.get(string(testStep.get("id")));
+                    String text;
+                    if (testStep.containsKey("pickleStepId")) {
+                        Map<String, Object> pickleStep = run.pickleSteps.get(string(testStep.get("pickleStepId")));
+                        text = run.astStepOf(pickleStep).get("keyword") + string(pickleStep.get("text"));
+                    } else if ("PASSED".equals(statusOf(result))) {
+                        continue;
+                    } else {
+                        text = "Hook " + run.locationOf(testStep);
+                    }
+                    scenario.log(extentStatus(statusOf(result)), text);
+                    if (result != null && result.get("message") != null) {
+                        scenario.log(Status.INFO, "<pre>" + escapeHtml(string(result.get("message"))) + "</pre>");
+                    }
+                }
+            }
+        }
+        extent.flush();
+    }
+
+    private static Status extentStatus(String status) {
+        switch (status) {
+            case "PASSED":
+                return Status.PASS;
+            case "SKIPPED":
+                return Status.SKIP;
+            case "PENDING":
+                return Status.WARNING;
+            default:
+                return Status.FAIL;
+        }
+    }
+
+    /**
+     * EventPublisher that feeds recorded messages to a formatter.
+     */
+    private static class ReplayPublisher implements EventPublisher {
+        private final List<EventHandler<Envelope>> handlers = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+            if (eventType == Envelope.class) {
+                handlers.add((EventHandler<Envelope>) handler);
+            }
+        }
+
+        @Override
+        public <T> void removeHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+            handlers.remove(handler);
+        }
+
+        void send(Envelope envelope) {
+            for (EventHandler<Envelope> handler : handlers) {
+                handler.receive(envelope);
+            }
+        }
+    }
+
+    private static String statusOf(Map<String, Object> testStepResult) {
+        return testStepResult == null ? "SKIPPED" : string(testStepResult.get("status"));
+    }
+
+    private static long nanos(Map<String, Object> timeOrDuration) {
+        if (timeOrDuration == null) {
+            return 0;
+        }
+        return ((Number) timeOrDuration.get("seconds")).longValue() * 1_000_000_000L
+                + ((Number) timeOrDuration.get("nanos")).longValue();
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+    }
+
+    private static long line(Map<String, Object> node) {
+        Map<String, Object> location = map(node.get("location"));
+        return location == null ? 0 : ((Number) location.get("line")).longValue();
+    }
+
+    private static List<Map<String, Object>> tags(Object tags) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> tag : list(tags)) {
+            Map<String, Object> jsonTag = new LinkedHashMap<>();
+            jsonTag.put("name", tag.get("name"));
+            result.add(jsonTag);
+        }
+        return result;
+    }
+
+    private static List<Object> tagNames(Object tags) {
+        List<Object> names = new ArrayList<>();
+        for (Map<String, Object> tag : list(tags)) {
+            names.add(tag.get("name"));
+        }
+        return names;
+    }
+
+    private static String id(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT).replaceAll("\\s+", "-");
+    }
+
+    private static String firstLine(String message) {
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static List<String> strings(Object values) {
+        List<String> result = new ArrayList<>();
+        for (Object value : rawList(values)) {
+            result.add(string(value));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> list(Object value) {
+        return value instanceof List ? (List<Map<String, Object>>) value : Collections.emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> listOf(Object value) {
+        return (List<Map<String, Object>>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> rawList(Object value) {
+        return value instanceof List ? (List<Object>) value : Collections.emptyList();
+    }
+
+    /**
+     * Generates the reports of a run after the fact; the Maven build runs it after the tests.
+     * Usage: ReportGenerator [outputDir] [messages.ndjson]
+     * With -Dreport.generate=false it does nothing. With -Dreport.failOnFailures=true it exits
+     * with status 1 if scenarios failed in their final attempt or the run left no messages.
+     */
+    public static void main(String[] args) throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("report.generate", "true"))) {
+            return;
+        }
+        boolean failOnFailures = Boolean.getBoolean("report.failOnFailures");
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "target");
+        Path messages = Paths.get(args.length > 1 ? args[1] : DEFAULT_MESSAGES);
+        if (!Files.exists(messages)) {
+            System.err.println("Error generating reports: " + messages + " not found, did the suite run?");
+            System.exit(failOnFailures ? 1 : 0);
+        }
+        long start = System.nanoTime();
+        Totals totals = generate(messages, outputDir);
+        System.out.println("Reports written to " + outputDir + " in " + (System.nanoTime() - start) / 1_000_000 + "ms: " + totals);
+        if (failOnFailures && totals.failed > 0) {
+            System.err.println(totals.failed + " of " + totals.scenarios + " scenarios failed");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Utilities;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReportMerger combines the message files written by the shards of a sharded run into
+ * one set of reports, as if the whole suite had run in a single JVM.
+ *
+ * Each shard directory is expected to contain the shard's cucumber-messages.ndjson.
+ * The JSON, JUnit, usage and Extent reports are generated from all shards together.
+ * The Cucumber HTML report is rendered per shard, and the merged HTML report is an
+ * index page with the totals and a link to every shard's report.
+ */
+public class ReportMerger {
+
+    /**
+     * Merges the reports of all shards.
+     *
+     * @param shardDirs Report directories of the shards, in shard order
+     * @param outputDir Directory the merged reports are written to
+     * @return Scenario counts of the merged reports
+     */
+    public static ReportGenerator.Totals merge(List<Path> shardDirs, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        List<Path> messageFiles = new ArrayList<>();
+        for (Path dir : shardDirs) {
+            Path messages = dir.resolve(ReportGenerator.MESSAGES_FILE);
+            if (!Files.exists(messages)) {
+                System.err.println("Missing shard messages: " + messages);
+                continue;
+            }
+            messageFiles.add(messages);
+            ReportGenerator.generateHtml(messages, dir.resolve(ReportGenerator.HTML_REPORT));
+        }
+
+        ReportGenerator.Totals totals = ReportGenerator.generateReports(messageFiles, outputDir);
+        writeHtmlIndex(shardDirs, outputDir.resolve(ReportGenerator.HTML_REPORT), totals);
+        return totals;
+    }
+
+    static void writeHtmlIndex(List<Path> shardDirs, Path target, ReportGenerator.Totals totals) throws IOException {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head><meta charset=\"UTF-8\"><title>Cucumber report</title></head>\n<body>\n");
+        html.append("<h1>Cucumber report</h1>\n");
+        html.append("<p>Scenarios: ").append(totals.scenarios)
+                .append(", passed: ").append(totals.passed)
+                .append(", failed: ").append(totals.failed)
+                .append(", skipped: ").append(totals.skipped)
+                .append(", shards: ").append(shardDirs.size()).append("</p>\n<ul>\n");
+        for (Path dir : shardDirs) {
+            Path report = dir.resolve(ReportGenerator.HTML_REPORT);
+            String link = target.toAbsolutePath().getParent().relativize(report.toAbsolutePath()).toString().replace('\\', '/');
+            html.append("<li><a href=\"").append(link).append("\">").append(dir.getFileName()).append("</a>")
+                    .append(Files.exists(report) ? "" : " (missing)").append("</li>\n");
+        }
+        html.append("</ul>\n</body>\n</html>\n");
+        Files.write(target, html.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Merges shard reports that were copied from several hosts.
+     * Usage: ReportMerger outputDir shardDir1 shardDir2 ...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReportMerger <outputDir> <shardDir>...");
+            return;
+        }
+        List<Path> shardDirs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shardDirs.add(Paths.get(args[i]));
+        }
+        merge(shardDirs, Paths.get(args[0]));
+        System.out.println("Merged " + shardDirs.size() + " shard reports into " + args[0]);
+    }
+}
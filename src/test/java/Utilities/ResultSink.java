@@ -0,0 +1,261 @@
+package Utilities;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultSink collects result rows for one Excel file and writes them from a single
+ * background thread, so scenario threads only put a row on a queue and never touch disk.
+ *
+ * The existing workbook is loaded once, when the first row arrives, and rows are appended
+ * to its TestResults sheet in memory, keeping its other sheets and cell types. An .xlsx
+ * workbook is wrapped in an SXSSF (streaming) workbook that keeps only the last
+ * -Dresults.batchSize rows in memory; a new file gets the format of its extension.
+ * The workbook is written to a temporary file next to the target and moved into place
+ * atomically when the sink is closed (at the end of the run, or on JVM shutdown), and as a
+ * snapshot every -Dresults.snapshotMs milliseconds (0 disables), so a killed run keeps the
+ * rows up to its last snapshot.
+ *
+ * If the existing workbook cannot be read, it is never overwritten: the rows are kept and
+ * the file is tried again at the next snapshot; rows still unwritten when the sink is
+ * closed are reported on stderr.
+ */
+public class ResultSink {
+
+    public static final String SHEET_NAME = "TestResults";
+    private static final String[] HEADERS = {"Scenario ID", "Status", "Browser", "Time"};
+
+    private static final int BATCH_SIZE = Integer.getInteger("results.batchSize", 50);
+    private static final long SNAPSHOT_MILLIS = Long.getLong("results.snapshotMs", 60000L);
+
+    private static final Object CLOSE = new Object();
+
+    private static final Map<String, ResultSink> sinks = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ResultSink::closeAll, "result-sink-shutdown"));
+    }
+
+    private final Path path;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed;
+
+    // Owned by the writer thread
+    private Workbook workbook;
+    private Sheet sheet;
+    private int rowIndex;
+    private int unsavedRows;
+    private final List<String[]> pending = new ArrayList<>();
+
+    private ResultSink(Path path) {
+        this.path = path;
+        this.writer = new Thread(this::writeLoop, "result-sink-" + path.getFileName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Returns the sink for an Excel file, starting it on first use.
+     *
+     * @param path Path to the results file
+     * @return Sink for that file
+     */
+    public static ResultSink forPath(String path) {
+        return sinks.computeIfAbsent(Paths.get(path).toAbsolutePath().normalize().toString(),
+                p -> new ResultSink(Paths.get(p)));
+    }
+
+    /**
+     * Queues a result row. Never blocks on disk. A row appended to a closed sink goes to
+     * the file's current sink instead.
+     *
+     * @param values Cell values of the row
+     */
+    public void append(String... values) {
+        synchronized (this) {
+            if (!closed) {
+                queue.add(values.clone());
+                return;
+            }
+        }
+        forPath(path.toString()).append(values);
+    }
+
+    /**
+     * Writes all queued rows to the file and stops the writer thread.
+     * Rows appended afterwards start a new sink that appends to the same file.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // No row can be queued behind CLOSE
+            queue.add(CLOSE);
+        }
+        sinks.remove(path.toString(), this);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Closes every open sink.
+     */
+    public static void closeAll() {
+        for (ResultSink sink : new ArrayList<>(sinks.values())) {
+            sink.close();
+        }
+    }
+
+    private void writeLoop() {
+        long lastSnapshot = System.nanoTime();
+        long pollMillis = SNAPSHOT_MILLIS > 0 ? SNAPSHOT_MILLIS : Long.MAX_VALUE;
+        try {
+            while (true) {
+                Object item = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (item == CLOSE) {
+                    break;
+                }
+                if (item != null) {
+                    pending.add((String[]) item);
+                    appendPending();
+                }
+                if (SNAPSHOT_MILLIS > 0 && System.nanoTime() - lastSnapshot >= TimeUnit.MILLISECONDS.toNanos(SNAPSHOT_MILLIS)) {
+                    save();
+                    lastSnapshot = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        save();
+        if (unsavedRows > 0) {
+            System.err.println("Error writing to Excel file: the last " + unsavedRows + " result rows are missing from " + path);
+        }
+        if (workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) workbook).dispose();
+        }
+        if (!pending.isEmpty()) {
+            System.err.println("Error writing to Excel file: " + pending.size() + " result rows could not be written to " + path);
+            for (String[] row : pending) {
+                System.err.println("  " + String.join(" | ", row));
+            }
+        }
+    }
+
+    /**
+     * Moves the pending rows into the workbook, opening it first if needed.
+     */
+    private void appendPending() {
+        if (pending.isEmpty() || (workbook == null && !open())) {
+            return;
+        }
+        for (String[] values : pending) {
+            writeRow(sheet, rowIndex++, values);
+        }
+        unsavedRows += pending.size();
+        pending.clear();
+    }
+
+    /**
+     * Loads the existing workbook, or creates one in the format of the file extension.
+     *
+     * @return false if an existing file could not be read; it is then left untouched
+     */
+    private boolean open() {
+        try {
+            Workbook loaded;
+            if (!Files.exists(path)) {
+                loaded = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xls")
+                        ? new HSSFWorkbook() : new SXSSFWorkbook(BATCH_SIZE);
+            } else {
+                try (InputStream in = Files.newInputStream(path)) {
+                    loaded = WorkbookFactory.create(in);
+                }
+                if (loaded instanceof XSSFWorkbook) {
+                    // Existing rows stay in the XSSF model, new rows are streamed after them
+                    loaded = new SXSSFWorkbook((XSSFWorkbook) loaded, BATCH_SIZE);
+                }
+            }
+
+            Sheet existing = loaded.getSheet(SHEET_NAME);
+            if (existing == null) {
+                sheet = loaded.createSheet(SHEET_NAME);
+                rowIndex = 0;
+                writeRow(sheet, rowIndex++, HEADERS);
+            } else {
+                sheet = existing;
+                int lastRow = loaded instanceof SXSSFWorkbook
+                        ? ((SXSSFWorkbook) loaded).getXSSFWorkbook().getSheet(SHEET_NAME).getLastRowNum()
+                        : existing.getLastRowNum();
+                rowIndex = lastRow + 1;
+            }
+            workbook = loaded;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error opening Excel file " + path + ", keeping " + pending.size()
+                    + " rows for the next attempt: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the workbook to a temporary file and moves it into place, if it has new rows.
+     */
+    private void save() {
+        appendPending();
+        if (unsavedRows == 0) {
+            return;
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    workbook.write(out);
+                }
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                unsavedRows = 0;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing to Excel file " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeRow(Sheet sheet, int rowIndex, String[] values) {
+        Row row = sheet.createRow(rowIndex);
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+}
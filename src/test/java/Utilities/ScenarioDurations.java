@@ -0,0 +1,114 @@
+package Utilities;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ScenarioDurations reads how long each scenario took in a previous run from the
+ * Cucumber JSON report (default target/cucumber.json, -Dscenario.durations.file).
+ * Scenarios are identified by feature file name and line, so the lookup works whether
+ * the report stores relative or absolute feature URIs.
+ */
+public class ScenarioDurations {
+
+    public static final String DEFAULT_REPORT = System.getProperty("scenario.durations.file", "target/cucumber.json");
+
+    private final Map<String, Long> durations;
+
+    private ScenarioDurations(Map<String, Long> durations) {
+        this.durations = durations;
+    }
+
+    /**
+     * Loads durations from the default report.
+     * Returns an empty result if there is no report yet.
+     */
+    public static ScenarioDurations load() {
+        return load(Paths.get(DEFAULT_REPORT));
+    }
+
+    /**
+     * Loads durations from a Cucumber JSON report.
+     *
+     * @param report Path to the report
+     * @return Durations found, empty if the report is missing or unreadable
+     */
+    public static ScenarioDurations load(Path report) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.exists(report)) {
+            return new ScenarioDurations(durations);
+        }
+
+        try (Reader reader = Files.newBufferedReader(report)) {
+            List<Map<String, Object>> features = new Json().toType(reader, Json.LIST_OF_MAPS_TYPE);
+            for (Map<String, Object> feature : features) {
+                String file = fileName(String.valueOf(feature.get("uri")));
+                long background = 0;
+                for (Map<String, Object> element : listOf(feature.get("elements"))) {
+                    long elapsed = sumDurations(element);
+                    if ("background".equals(element.get("type"))) {
+                        // The background runs as part of the scenario that follows it
+                        background = elapsed;
+                        continue;
+                    }
+                    long line = ((Number) element.get("line")).longValue();
+                    durations.merge(file + ":" + line, background + elapsed, Long::sum);
+                    background = 0;
+                }
+            }
+        } catch (IOException | JsonException | ClassCastException e) {
+            System.err.println("Could not read scenario durations from " + report + ": " + e.getMessage());
+            durations.clear();
+        }
+        return new ScenarioDurations(durations);
+    }
+
+    /**
+     * @param uri Feature file URI
+     * @param line Line of the scenario (or example row) in the feature file
+     * @return Recorded duration in nanoseconds, or -1 if the scenario has no recorded run
+     */
+    public long durationOf(URI uri, int line) {
+        return durations.getOrDefault(fileName(uri.toString()) + ":" + line, -1L);
+    }
+
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    private static long sumDurations(Map<String, Object> element) {
+        long total = 0;
+        for (String section : new String[]{"before", "steps", "after"}) {
+            for (Map<String, Object> step : listOf(element.get(section))) {
+                Object result = step.get("result");
+                if (result instanceof Map) {
+                    Object duration = ((Map<?, ?>) result).get("duration");
+                    if (duration instanceof Number) {
+                        total += ((Number) duration).longValue();
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> listOf(Object value) {
+        return value instanceof List ? (List<Map<String, Object>>) value : Collections.emptyList();
+    }
+
+    private static String fileName(String uri) {
+        return uri.substring(uri.lastIndexOf('/') + 1);
+    }
+}
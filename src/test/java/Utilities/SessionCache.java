@@ -0,0 +1,238 @@
+package Utilities;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.json.Json;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * SessionCache logs a user in through the UI once and restores the authenticated state
+ * (cookies plus local and session storage) into later scenarios' browsers, fresh or pooled.
+ *
+ * Snapshots are kept per credential set and origin, and per worker thread unless
+ * -Dsession.cache.scope=shared, where all workers reuse one login. A snapshot expires with
+ * its first expiring cookie, or after -Dsession.ttl minutes (default 15). If the restored
+ * session turns out to be logged out anyway (e.g. the server ended it), the snapshot is
+ * dropped and the user logs in through the UI again.
+ *
+ * In Chrome and Edge the state is restored before the page is opened, so restoring costs one
+ * navigation; other browsers open the page, restore and reload. Scenarios tagged
+ * &#64;noSessionCache, e.g. the ones testing the login itself, always log in through the UI,
+ * as do all scenarios with -Dsession.cache=false.
+ */
+public class SessionCache {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("session.cache", "true"));
+    private static final boolean SHARED = "shared".equalsIgnoreCase(System.getProperty("session.cache.scope", "worker"));
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("session.ttl", 15L));
+
+    // Read local and session storage of the current page
+    private static final String CAPTURE_SCRIPT =
+            "function copy(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; }" +
+            "return [copy(window.localStorage), copy(window.sessionStorage)];";
+
+    /**
+     * Authenticated state of one user on one origin.
+     */
+    private static class Snapshot {
+        final String origin;
+        final Set<Cookie> cookies;
+        final Map<String, Object> localStorage;
+        final Map<String, Object> sessionStorage;
+        final long expiresAt;
+
+        Snapshot(String origin, Set<Cookie> cookies, Map<String, Object> localStorage, Map<String, Object> sessionStorage) {
+            this.origin = origin;
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+            this.sessionStorage = sessionStorage;
+            long expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+            for (Cookie cookie : cookies) {
+                if (cookie.getExpiry() != null) {
+                    expiresAt = Math.min(expiresAt, cookie.getExpiry().getTime());
+                }
+            }
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private static final Map<String, Snapshot> sharedSnapshots = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, Snapshot>> workerSnapshots = ThreadLocal.withInitial(HashMap::new);
+    private static final ThreadLocal<Boolean> optedOut = ThreadLocal.withInitial(() -> false);
+
+    private static final LongAdder uiLoginCount = new LongAdder();
+    private static final LongAdder restoreCount = new LongAdder();
+    private static final LongAdder expiredCount = new LongAdder();
+    private static final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Opts the current thread's scenario out of the cache, e.g. for the &#64;noSessionCache tag.
+     *
+     * @param optOut true to always log in through the UI
+     */
+    public static void setOptedOut(boolean optOut) {
+        optedOut.set(optOut);
+    }
+
+    /**
+     * Makes sure the current thread's browser is logged in as the given user on the page at url.
+     *
+     * @param url Page to end up on, on the origin the user logs in to
+     * @param username Credential set the snapshot is kept for
+     * @param uiLogin Logs in through the UI, starting from any page
+     * @param loggedIn Checks whether the browser is logged in on the current page
+     */
+    public static void login(String url, String username, Runnable uiLogin, Predicate<WebDriver> loggedIn) {
+        WebDriver driver = BaseDriver.getDriver();
+        if (!ENABLED || optedOut.get()) {
+            uiLoginCount.increment();
+            uiLogin.run();
+            return;
+        }
+
+        String origin = originOf(url);
+        String key = origin + "|" + username;
+        Map<String, Snapshot> snapshots = SHARED ? sharedSnapshots : workerSnapshots.get();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.isExpired()) {
+            expiredCount.increment();
+            snapshots.remove(key);
+            snapshot = null;
+        }
+
+        if (snapshot != null) {
+            restore(driver, snapshot, url);
+            if (loggedIn.test(driver)) {
+                restoreCount.increment();
+                return;
+            }
+            // The server no longer accepts the session, log in for real
+            rejectedCount.increment();
+            snapshots.remove(key);
+            driver.manage().deleteAllCookies();
+        }
+
+        uiLoginCount.increment();
+        uiLogin.run();
+        snapshots.put(key, capture(driver, origin));
+    }
+
+    private static Snapshot capture(WebDriver driver, String origin) {
+        Map<String, Object> local = Collections.emptyMap();
+        Map<String, Object> session = Collections.emptyMap();
+        if (BaseDriver.supportsJavascript(driver)) {
+            List<?> storage = (List<?>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT);
+            local = toMap(storage.get(0));
+            session = toMap(storage.get(1));
+        }
+        return new Snapshot(origin, driver.manage().getCookies(), local, session);
+    }
+
+    private static void restore(WebDriver driver, Snapshot snapshot, String url) {
+        if (driver instanceof ChromiumDriver) {
+            try {
+                restoreBeforeNavigation((ChromiumDriver) driver, snapshot, url);
+                return;
+            } catch (WebDriverException e) {
+                System.err.println("Restoring the session through CDP failed, reloading instead: " + e.getMessage());
+            }
+        }
+        driver.get(url);
+        for (Cookie cookie : snapshot.cookies) {
+            try {
+                driver.manage().addCookie(cookie);
+            } catch (WebDriverException e) {
+                // Cookie of another domain, e.g. set by a redirect during login
+            }
+        }
+        if (BaseDriver.supportsJavascript(driver)) {
+            ((JavascriptExecutor) driver).executeScript(storageScript(snapshot));
+        }
+        driver.navigate().refresh();
+    }
+
+    /**
+     * Sets the cookies through CDP and seeds the storage with a script that runs before the
+     * page's own scripts, so the page is opened once, already logged in.
+     */
+    private static void restoreBeforeNavigation(ChromiumDriver driver, Snapshot snapshot, String url) {
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie cookie : snapshot.cookies) {
+            Map<String, Object> param = new LinkedHashMap<>();
+            param.put("name", cookie.getName());
+            param.put("value", cookie.getValue());
+            param.put("domain", cookie.getDomain());
+            param.put("path", cookie.getPath());
+            param.put("secure", cookie.isSecure());
+            param.put("httpOnly", cookie.isHttpOnly());
+            if (cookie.getSameSite() != null) {
+                param.put("sameSite", cookie.getSameSite());
+            }
+            Date expiry = cookie.getExpiry();
+            if (expiry != null) {
+                param.put("expires", expiry.getTime() / 1000.0);
+            }
+            cookies.add(param);
+        }
+        driver.executeCdpCommand("Network.setCookies", Collections.singletonMap("cookies", cookies));
+
+        Map<String, Object> added = driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                Collections.singletonMap("source", "if (window === window.top) { " + storageScript(snapshot) + " }"));
+        try {
+            driver.get(url);
+        } finally {
+            driver.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument",
+                    Collections.singletonMap("identifier", added.get("identifier")));
+        }
+    }
+
+    private static String storageScript(Snapshot snapshot) {
+        Json json = new Json();
+        return "if (location.origin === " + json.toJson(snapshot.origin) + ") { try {"
+                + " var l = " + json.toJson(snapshot.localStorage) + ", s = " + json.toJson(snapshot.sessionStorage) + ";"
+                + " for (var k in l) { window.localStorage.setItem(k, l[k]); }"
+                + " for (var k in s) { window.sessionStorage.setItem(k, s[k]); }"
+                + " } catch (e) {} }";
+    }
+
+    private static String originOf(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toMap(Object value) {
+        return value instanceof Map ? new LinkedHashMap<>((Map<String, Object>) value) : Collections.emptyMap();
+    }
+
+    /**
+     * Returns a one-line summary of logins and restored sessions.
+     */
+    public static String statsSummary() {
+        return "SessionCache: " + (ENABLED ? (SHARED ? "shared" : "per worker") : "disabled")
+                + ", uiLogins=" + uiLoginCount.sum()
+                + ", restored=" + restoreCount.sum()
+                + ", expired=" + expiredCount.sum()
+                + ", rejected=" + rejectedCount.sum();
+    }
+}
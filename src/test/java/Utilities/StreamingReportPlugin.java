@@ -0,0 +1,133 @@
+package Utilities;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.ConstructorDetector;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * StreamingReportPlugin writes every Cucumber message of the run to an NDJSON file
+ * (one JSON message per line) as the events happen. Scenario threads only put the
+ * message on a queue; a single background thread serializes and appends it, so nothing
+ * about the run is kept in memory. The HTML, JSON, JUnit, usage and Extent reports are
+ * produced from the file afterwards by ReportGenerator.
+ *
+ * Usage: plugin = "Utilities.StreamingReportPlugin:target/cucumber-messages.ndjson".
+ * The queue holds up to -Dreport.queueSize messages; when the writer falls that far
+ * behind, scenario threads wait for it instead of growing the heap.
+ */
+public class StreamingReportPlugin implements ConcurrentEventListener {
+
+    private static final int QUEUE_SIZE = Integer.getInteger("report.queueSize", 10000);
+
+    // Same settings Cucumber uses for its own message formatter, so the files are interchangeable
+    static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new Jdk8Module())
+            .addModule(new ParameterNamesModule(JsonCreator.Mode.PROPERTIES))
+            .serializationInclusion(JsonInclude.Include.NON_ABSENT)
+            .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final File file;
+    private final BlockingQueue<Envelope> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread writer;
+    private volatile boolean finished;
+    private long written;
+    private int maxQueueDepth;
+
+    public StreamingReportPlugin() {
+        this(new File(ReportGenerator.DEFAULT_MESSAGES));
+    }
+
+    public StreamingReportPlugin(File file) {
+        this.file = file;
+        this.writer = new Thread(this::writeLoop, "report-writer-" + file.getName());
+        this.writer.setDaemon(true);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        writer.start();
+        publisher.registerHandlerFor(Envelope.class, this::enqueue);
+    }
+
+    private void enqueue(Envelope envelope) {
+        try {
+            queue.put(envelope);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (envelope.getTestRunFinished().isPresent()) {
+            // Reports are generated from the file right after the run, so wait until it is complete
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+
+        List<Envelope> batch = new ArrayList<>();
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            while (!finished) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                maxQueueDepth = Math.max(maxQueueDepth, batch.size());
+
+                for (Envelope envelope : batch) {
+                    out.write(MAPPER.writeValueAsString(envelope));
+                    out.write('\n');
+                    written++;
+                    if (envelope.getTestRunFinished().isPresent()) {
+                        finished = true;
+                    }
+                }
+                batch.clear();
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing Cucumber messages to " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            // Keep draining so scenario threads are never blocked by a dead writer
+            while (!finished) {
+                try {
+                    finished = queue.take().getTestRunFinished().isPresent();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        System.out.println("StreamingReportPlugin: messages=" + written + ", maxQueueDepth=" + maxQueueDepth
+                + ", file=" + file);
+    }
+}
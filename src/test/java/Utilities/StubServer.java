@@ -0,0 +1,362 @@
+package Utilities;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StubServer stands in for the application under test with a local HTTP server, one per
+ * origin (e.g. https://opensource-demo.orangehrmlive.com).
+ *
+ * -Dstub.mode=record proxies every request to the real origin and saves the response as a
+ * fixture under -Dstub.fixtures (default src/test/resources/stubs/&lt;host&gt;).
+ * -Dstub.mode=replay loads the fixtures into memory and serves them without any network
+ * access; a request without a fixture gets a 404. A request is matched by method, path,
+ * query and body, falling back to the latest response recorded for the same method and path
+ * (e.g. a login form posting a fresh CSRF token). Each fixture stores when it was recorded;
+ * among fixtures recorded before that was stored, the one whose file name sorts last is used.
+ *
+ * Steps open url(...) instead of the real URL; outside record and replay mode it returns
+ * the URL unchanged. Absolute links to the origin in recorded pages, redirects and cookie
+ * domains are rewritten to the stub's localhost address when served.
+ */
+public class StubServer {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    public static final Mode MODE = Mode.valueOf(System.getProperty("stub.mode", "off").toUpperCase(Locale.ROOT));
+
+    private static final Path FIXTURES = Paths.get(System.getProperty("stub.fixtures", "src/test/resources/stubs"));
+
+    // Hop-by-hop and length headers are not stored; the browser must not get the origin's encoding either
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = new HashSet<>(Arrays.asList(
+            "host", "connection", "content-length", "expect", "upgrade", "accept-encoding", "keep-alive", "te", "trailer",
+            "date", "from", "via", "warning"));
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "transfer-encoding", "keep-alive", "alt-svc", "strict-transport-security"));
+
+    private static final Map<String, StubServer> servers = new ConcurrentHashMap<>();
+
+    private static final LongAdder servedCount = new LongAdder();
+    private static final LongAdder recordedCount = new LongAdder();
+    private static final LongAdder fallbackCount = new LongAdder();
+    private static final LongAdder missCount = new LongAdder();
+
+    // Recording time in milliseconds, made unique so responses recorded in the same millisecond keep their order
+    private static final AtomicLong lastRecordedAt = new AtomicLong();
+
+    /**
+     * One recorded response.
+     */
+    private static class Fixture {
+        final int status;
+        final Map<String, List<String>> headers;
+        final byte[] body;
+
+        Fixture(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private final String origin;
+    private final Path dir;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Map<String, Fixture> byRequest = new ConcurrentHashMap<>();
+    private final Map<String, Fixture> byPath = new ConcurrentHashMap<>();
+
+    private StubServer(String origin) throws IOException {
+        this.origin = origin;
+        URI uri = URI.create(origin);
+        this.dir = FIXTURES.resolve(uri.getPort() < 0 ? uri.getHost() : uri.getHost() + "_" + uri.getPort());
+        this.client = MODE == Mode.RECORD
+                ? HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).connectTimeout(Duration.ofSeconds(30)).build()
+                : null;
+        if (MODE == Mode.REPLAY) {
+            loadFixtures();
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stub-" + uri.getHost() + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        System.out.println("Stub server (" + MODE.name().toLowerCase(Locale.ROOT) + ") for " + origin + " at " + baseUrl);
+    }
+
+    /**
+     * Returns the URL a step should open: the real URL, or the same path on the origin's
+     * stub server in record and replay mode. The stub server is started on first use.
+     *
+     * @param url URL of the application under test
+     * @return URL to open in the browser
+     */
+    public static String url(String url) {
+        if (MODE == Mode.OFF) {
+            return url;
+        }
+        URI uri = URI.create(url);
+        String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+        StubServer stub = servers.computeIfAbsent(origin, o -> {
+            try {
+                return new StubServer(o);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error starting stub server for " + o + ": " + e.getMessage(), e);
+            }
+        });
+        return stub.baseUrl + url.substring(origin.length());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            URI requestUri = exchange.getRequestURI();
+            String path = requestUri.getRawPath();
+            String pathAndQuery = requestUri.getRawQuery() == null ? path : path + "?" + requestUri.getRawQuery();
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            String requestKey = requestKey(method, pathAndQuery, requestBody);
+
+            Fixture fixture;
+            if (MODE == Mode.RECORD) {
+                fixture = record(exchange, method, pathAndQuery, requestBody);
+                save(requestKey, method, path, pathAndQuery, fixture);
+            } else {
+                fixture = byRequest.get(requestKey);
+                if (fixture == null) {
+                    fixture = byPath.get(method + " " + path);
+                    if (fixture != null) {
+                        fallbackCount.increment();
+                    }
+                }
+            }
+
+            if (fixture == null) {
+                missCount.increment();
+                byte[] message = ("No recorded response for " + method + " " + pathAndQuery + " in " + dir)
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(404, message.length);
+                exchange.getResponseBody().write(message);
+                return;
+            }
+            respond(exchange, method, fixture);
+            servedCount.increment();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Stub server error for " + exchange.getRequestURI() + ": " + e.getMessage());
+            exchange.sendResponseHeaders(502, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(502, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Fixture record(HttpExchange exchange, String method, String pathAndQuery, byte[] requestBody)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(origin + pathAndQuery))
+                .timeout(Duration.ofSeconds(60))
+                .method(method, requestBody.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(requestBody));
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (SKIPPED_REQUEST_HEADERS.contains(name)) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                // The origin must see its own address in Origin and Referer
+                request.header(header.getKey(), value.replace(baseUrl, origin));
+            }
+        }
+
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (!name.startsWith(":") && !SKIPPED_RESPONSE_HEADERS.contains(name)) {
+                headers.put(name, new ArrayList<>(header.getValue()));
+            }
+        }
+        recordedCount.increment();
+        return new Fixture(response.statusCode(), headers, response.body());
+    }
+
+    private void respond(HttpExchange exchange, String method, Fixture fixture) throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        boolean rewriteBody = !fixture.headers.containsKey("content-encoding");
+        String contentType = "";
+        for (Map.Entry<String, List<String>> header : fixture.headers.entrySet()) {
+            for (String value : header.getValue()) {
+                if ("set-cookie".equals(header.getKey())) {
+                    // Cookies scoped to the origin's domain would be rejected on localhost
+                    value = value.replaceAll("(?i);\\s*domain=[^;]*", "");
+                } else if ("location".equals(header.getKey())) {
+                    value = value.replace(origin, baseUrl);
+                } else if ("content-type".equals(header.getKey())) {
+                    contentType = value.toLowerCase(Locale.ROOT);
+                }
+                responseHeaders.add(header.getKey(), value);
+            }
+        }
+
+        byte[] body = fixture.body;
+        if (rewriteBody && isText(contentType) && body.length > 0) {
+            body = new String(body, StandardCharsets.UTF_8).replace(origin, baseUrl).getBytes(StandardCharsets.UTF_8);
+        }
+        boolean noBody = "HEAD".equals(method) || fixture.status == 204 || fixture.status == 304 || body.length == 0;
+        exchange.sendResponseHeaders(fixture.status, noBody ? -1 : body.length);
+        if (!noBody) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static boolean isText(String contentType) {
+        return contentType.startsWith("text/") || contentType.contains("javascript") || contentType.contains("json")
+                || contentType.contains("xml");
+    }
+
+    private void save(String requestKey, String method, String path, String pathAndQuery, Fixture fixture) throws IOException {
+        byRequest.put(requestKey, fixture);
+        byPath.put(method + " " + path, fixture);
+
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("key", requestKey);
+        meta.put("method", method);
+        meta.put("path", path);
+        meta.put("url", pathAndQuery);
+        meta.put("status", fixture.status);
+        meta.put("headers", fixture.headers);
+        meta.put("recordedAt", lastRecordedAt.accumulateAndGet(System.currentTimeMillis(), (last, now) -> Math.max(last + 1, now)));
+
+        Files.createDirectories(dir);
+        String name = hash(requestKey.getBytes(StandardCharsets.UTF_8)).substring(0, 24);
+        Files.write(dir.resolve(name + ".body"), fixture.body);
+        try (Writer writer = Files.newBufferedWriter(dir.resolve(name + ".json"))) {
+            writer.write(new Json().toJson(meta));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadFixtures() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            System.err.println("No stub fixtures in " + dir + ", record them with -Dstub.mode=record");
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.json")) {
+            stream.forEach(files::add);
+        }
+        // Sorted by name so the path fallback is the same on every run for fixtures without a recording time
+        files.sort(null);
+        Map<String, Long> pathRecordedAt = new LinkedHashMap<>();
+        for (Path file : files) {
+            Map<String, Object> meta;
+            try (Reader reader = Files.newBufferedReader(file)) {
+                meta = new Json().toType(reader, Json.MAP_TYPE);
+            }
+            String bodyName = file.getFileName().toString().replaceFirst("\\.json$", ".body");
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> header : ((Map<String, Object>) meta.get("headers")).entrySet()) {
+                List<String> values = new ArrayList<>();
+                for (Object value : (List<Object>) header.getValue()) {
+                    values.add(String.valueOf(value));
+                }
+                headers.put(header.getKey(), values);
+            }
+            Fixture fixture = new Fixture(((Number) meta.get("status")).intValue(), headers,
+                    Files.readAllBytes(dir.resolve(bodyName)));
+            byRequest.put(String.valueOf(meta.get("key")), fixture);
+
+            String pathKey = meta.get("method") + " " + meta.get("path");
+            long recordedAt = meta.get("recordedAt") instanceof Number ? ((Number) meta.get("recordedAt")).longValue() : -1;
+            if (recordedAt >= pathRecordedAt.getOrDefault(pathKey, -1L)) {
+                pathRecordedAt.put(pathKey, recordedAt);
+                byPath.put(pathKey, fixture);
+            }
+        }
+        System.out.println("Loaded " + files.size() + " stub fixtures from " + dir);
+    }
+
+    private static String requestKey(String method, String pathAndQuery, byte[] body) {
+        return body.length == 0 ? method + " " + pathAndQuery : method + " " + pathAndQuery + " " + hash(body);
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Stops all stub servers.
+     */
+    public static void shutdown() {
+        for (StubServer stub : servers.values()) {
+            stub.server.stop(0);
+            stub.executor.shutdown();
+        }
+        servers.clear();
+    }
+
+    /**
+     * Returns a one-line summary of the stub servers.
+     */
+    public static String statsSummary() {
+        return "StubServer: mode=" + MODE.name().toLowerCase(Locale.ROOT)
+                + ", origins=" + servers.keySet()
+                + ", served=" + servedCount.sum()
+                + ", recorded=" + recordedCount.sum()
+                + ", pathFallbacks=" + fallbackCount.sum()
+                + ", misses=" + missCount.sum();
+    }
+}
@@ -0,0 +1,247 @@
+package Utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TestDataCache keeps parsed Excel sheets in memory for the whole JVM so parallel
+ * scenarios read one shared copy instead of re-parsing the file every time.
+ *
+ * Entries are keyed by (path, sheet, column count) and hold immutable rows, so reads
+ * need no locking. Before an entry is used its file's modification time and size are
+ * checked; when they changed the file's content hash decides whether it is re-parsed.
+ * The cache is bounded by the total number of cached cells (-Dtestdata.cache.maxCells)
+ * and evicts the least recently used sheets first. A sheet that could not be read is
+ * reported and returned empty, like ExcelUtility does, but not cached.
+ */
+public class TestDataCache {
+
+    private static final long MAX_CELLS = Long.getLong("testdata.cache.maxCells", 1_000_000L);
+
+    private static final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+    private static final AtomicLong cachedCells = new AtomicLong();
+    private static final AtomicLong accessClock = new AtomicLong();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+    private static final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Returns the rows of a sheet, parsing the file only if it is not cached or has changed.
+     * The returned lists are unmodifiable.
+     *
+     * @param path Path to the Excel file
+     * @param sheetName Name of the sheet to read from
+     * @param columnCount Number of columns to read
+     * @return Unmodifiable List of unmodifiable rows
+     */
+    public static List<List<String>> getListData(String path, String sheetName, int columnCount) {
+        Path file = Paths.get(path).toAbsolutePath().normalize();
+        FileStamp stamp;
+        try {
+            stamp = FileStamp.of(file);
+        } catch (IOException e) {
+            // Let ExcelUtility report the missing or unreadable file as it always has
+            return ExcelUtility.getListData(path, sheetName, columnCount);
+        }
+
+        Key key = new Key(file.toString(), sheetName, columnCount);
+        Entry entry = cache.get(key);
+        if (entry != null && entry.stamp.equals(stamp)) {
+            hits.increment();
+            entry.lastAccess = accessClock.incrementAndGet();
+            return entry.rows;
+        }
+
+        Entry loaded;
+        try {
+            loaded = cache.compute(key, (k, current) -> {
+                if (current != null && current.stamp.equals(stamp)) {
+                    // Another thread loaded it while we were checking
+                    hits.increment();
+                    return current;
+                }
+                if (current != null && !current.contentHash.isEmpty() && current.contentHash.equals(contentHash(file))) {
+                    // Touched but not changed
+                    hits.increment();
+                    return new Entry(current.rows, stamp, current.contentHash, current.cells);
+                }
+                misses.increment();
+                Entry fresh = load(file, k, stamp);
+                cachedCells.addAndGet(fresh.cells - (current == null ? 0 : current.cells));
+                return fresh;
+            });
+        } catch (UncheckedIOException e) {
+            // The mapping is left as it was, so the next call reads the file again
+            System.err.println("Error reading Excel file: " + e.getCause().getMessage());
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+        loaded.lastAccess = accessClock.incrementAndGet();
+
+        evictIfNeeded(key);
+        return loaded.rows;
+    }
+
+    /**
+     * Drops every cached sheet.
+     */
+    public static void clear() {
+        cache.clear();
+        cachedCells.set(0);
+    }
+
+    /**
+     * Returns a one-line summary of the cache counters.
+     */
+    public static String statsSummary() {
+        return "TestDataCache: hits=" + hits.sum()
+                + ", misses=" + misses.sum()
+                + ", evictions=" + evictions.sum()
+                + ", loadMs=" + TimeUnit.NANOSECONDS.toMillis(loadNanos.sum())
+                + ", sheets=" + cache.size()
+                + ", cells=" + cachedCells.get();
+    }
+
+    private static Entry load(Path file, Key key, FileStamp stamp) {
+        long start = System.nanoTime();
+        List<List<String>> parsed;
+        try {
+            parsed = ExcelUtility.readListData(file.toString(), key.sheetName, key.columnCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<List<String>> rows = new ArrayList<>(parsed.size());
+        long cells = 0;
+        for (List<String> row : parsed) {
+            rows.add(Collections.unmodifiableList(new ArrayList<>(row)));
+            cells += row.size();
+        }
+        Entry entry = new Entry(Collections.unmodifiableList(rows), stamp, contentHash(file), cells);
+        loadNanos.add(System.nanoTime() - start);
+        return entry;
+    }
+
+    private static void evictIfNeeded(Key justUsed) {
+        while (cachedCells.get() > MAX_CELLS && cache.size() > 1) {
+            Key oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<Key, Entry> e : cache.entrySet()) {
+                if (!e.getKey().equals(justUsed) && e.getValue().lastAccess < oldestAccess) {
+                    oldest = e.getKey();
+                    oldestAccess = e.getValue().lastAccess;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            Entry removed = cache.remove(oldest);
+            if (removed != null) {
+                cachedCells.addAndGet(-removed.cells);
+                evictions.increment();
+            }
+        }
+    }
+
+    private static String contentHash(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return Arrays.toString(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            // Unreadable now, force a reload next time
+            return "";
+        }
+    }
+
+    private static class Key {
+        private final String path;
+        private final String sheetName;
+        private final int columnCount;
+
+        Key(String path, String sheetName, int columnCount) {
+            this.path = path;
+            this.sheetName = sheetName;
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return columnCount == other.columnCount && path.equals(other.path) && sheetName.equals(other.sheetName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, sheetName, columnCount);
+        }
+    }
+
+    private static class FileStamp {
+        private final long modified;
+        private final long size;
+
+        private FileStamp(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        static FileStamp of(Path file) throws IOException {
+            return new FileStamp(Files.getLastModifiedTime(file).toMillis(), Files.size(file));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) o;
+            return modified == other.modified && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modified, size);
+        }
+    }
+
+    private static class Entry {
+        private final List<List<String>> rows;
+        private final FileStamp stamp;
+        private final String contentHash;
+        private final long cells;
+        private volatile long lastAccess;
+
+        Entry(List<List<String>> rows, FileStamp stamp, String contentHash, long cells) {
+            this.rows = rows;
+            this.stamp = stamp;
+            this.contentHash = contentHash;
+            this.cells = cells;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package Utilities;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * WaitPolicy is the central engine behind Parent's wait helpers.
+ * Each thread reuses one wait object bound to its driver, and conditions are polled
+ * with backoff: the first polls are fast so quick conditions return quickly, later
+ * polls slow down so long waits cost fewer round trips to the driver.
+ *
+ * Every wait records its time-to-satisfy per locator. From that history a learned
+ * timeout (a multiple of the recent p95) is kept per locator; with -Dwait.adaptive=true
+ * it replaces the caller's timeout once enough samples exist, so a missing element fails
+ * fast instead of burning the full timeout. Waits that finish close to their timeout are
+ * counted and listed in the summary.
+ *
+ * Tuning: -Dwait.timeout / -Dwait.timeout.long (seconds), -Dwait.poll.initialMs,
+ * -Dwait.poll.maxMs, -Dwait.poll.factor, -Dwait.adaptive.factor, -Dwait.adaptive.minMs.
+ */
+public class WaitPolicy {
+
+    /** Default timeout for element waits */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(Long.getLong("wait.timeout", 10L));
+
+    /** Timeout for waits on slow operations such as result lists shrinking */
+    public static final Duration LONG_TIMEOUT = Duration.ofSeconds(Long.getLong("wait.timeout.long", 20L));
+
+    private static final long INITIAL_POLL_MILLIS = Long.getLong("wait.poll.initialMs", 50L);
+    private static final long MAX_POLL_MILLIS = Long.getLong("wait.poll.maxMs", 500L);
+    private static final double POLL_FACTOR = Double.parseDouble(System.getProperty("wait.poll.factor", "1.5"));
+
+    private static final boolean ADAPTIVE = Boolean.getBoolean("wait.adaptive");
+    private static final double ADAPTIVE_FACTOR = Double.parseDouble(System.getProperty("wait.adaptive.factor", "3"));
+    private static final long ADAPTIVE_MIN_MILLIS = Long.getLong("wait.adaptive.minMs", 2000L);
+    private static final int ADAPTIVE_MIN_SAMPLES = 20;
+    private static final int HISTORY_SIZE = 50;
+
+    // A wait that used more than this share of its timeout is reported as close to timing out
+    private static final double NEAR_TIMEOUT_RATIO = 0.8;
+
+    private static final ThreadLocal<BackoffWait> threadWait = new ThreadLocal<>();
+
+    private static final Map<String, LocatorStats> stats = new ConcurrentHashMap<>();
+    private static final LongAdder totalPolls = new LongAdder();
+
+    /**
+     * Polls a condition until it returns a non-null, non-false value.
+     *
+     * @param condition Condition to evaluate, typically from ExpectedConditions
+     * @param key Locator description the timing history is kept under
+     * @param timeout Maximum time to wait
+     * @return The value returned by the condition
+     * @throws TimeoutException if the condition is not met in time
+     */
+    public static <T> T until(Function<? super WebDriver, T> condition, String key, Duration timeout) {
+        WebDriver driver = BaseDriver.getDriver();
+        BackoffWait wait = threadWait.get();
+        if (wait == null || wait.driver != driver) {
+            wait = new BackoffWait(driver);
+            threadWait.set(wait);
+        }
+
+        LocatorStats locatorStats = stats.computeIfAbsent(key, k -> new LocatorStats());
+        long effectiveTimeout = timeout.toMillis();
+        if (ADAPTIVE) {
+            effectiveTimeout = Math.min(effectiveTimeout, locatorStats.learnedTimeoutMillis(effectiveTimeout));
+        }
+        return wait.until(condition, key, effectiveTimeout, locatorStats);
+    }
+
+    /**
+     * Returns a stable key for an element: the locator for page object proxies,
+     * and the locator part of the description for elements found directly.
+     *
+     * @param element WebElement to describe
+     * @return Locator description
+     */
+    public static String keyFor(WebElement element) {
+        String description = element.toString();
+        int locatorStart = description.indexOf("-> ");
+        if (locatorStart >= 0) {
+            // "[[ChromeDriver: chrome on linux (session)] -> css selector: .item]"
+            return description.substring(locatorStart + 3, description.length() - 1);
+        }
+        String proxyPrefix = "Proxy element for: ";
+        if (description.startsWith(proxyPrefix)) {
+            // "Proxy element for: ElementCache 'By.id: password'", drop the locator class name
+            String locator = description.substring(proxyPrefix.length());
+            return locator.substring(locator.indexOf(' ') + 1);
+        }
+        return description;
+    }
+
+    /**
+     * Returns a stable key for a list of elements: "all of" and the locator for page object
+     * list proxies, whose description does not look the elements up. Other lists share one key.
+     *
+     * @param elements List of WebElements to describe
+     * @return Locator description
+     */
+    public static String keyFor(List<WebElement> elements) {
+        String proxyPrefix = "Proxy list for: ";
+        if (Proxy.isProxyClass(elements.getClass())) {
+            String description = elements.toString();
+            if (description.startsWith(proxyPrefix)) {
+                // "Proxy list for: ElementCache 'By.cssSelector: .item'", drop the locator class name
+                String locator = description.substring(proxyPrefix.length());
+                return "all of " + locator.substring(locator.indexOf(' ') + 1);
+            }
+        }
+        return "visibility of all elements in list";
+    }
+
+    /**
+     * Returns a summary of all waits, listing locators that timed out or came close.
+     */
+    public static String statsSummary() {
+        long waits = 0;
+        StringBuilder slow = new StringBuilder();
+        for (Map.Entry<String, LocatorStats> entry : new TreeMap<>(stats).entrySet()) {
+            LocatorStats s = entry.getValue();
+            waits += s.count.sum();
+            if (s.nearTimeouts.sum() > 0 || s.timeouts.sum() > 0) {
+                slow.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                        .append(" [waits=").append(s.count.sum())
+                        .append(", nearTimeout=").append(s.nearTimeouts.sum())
+                        .append(", timeouts=").append(s.timeouts.sum())
+                        .append(", p95Ms=").append(s.percentileMillis(0.95))
+                        .append(", maxMs=").append(TimeUnit.NANOSECONDS.toMillis(s.maxNanos.get()))
+                        .append(']');
+            }
+        }
+        return "WaitPolicy: waits=" + waits + ", polls=" + totalPolls.sum() + ", locators=" + stats.size() + slow;
+    }
+
+    /**
+     * Per-thread wait bound to one driver.
+     */
+    private static class BackoffWait {
+        private final WebDriver driver;
+
+        BackoffWait(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        <T> T until(Function<? super WebDriver, T> condition, String key, long timeoutMillis, LocatorStats locatorStats) {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            long pollMillis = INITIAL_POLL_MILLIS;
+            RuntimeException lastException = null;
+
+            while (true) {
+                totalPolls.increment();
+                try {
+                    T value = condition.apply(driver);
+                    if (value != null && (!(value instanceof Boolean) || Boolean.TRUE.equals(value))) {
+                        locatorStats.record(System.nanoTime() - start, timeoutMillis, true);
+                        return value;
+                    }
+                    lastException = null;
+                } catch (NotFoundException e) {
+                    lastException = e;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    locatorStats.record(System.nanoTime() - start, timeoutMillis, false);
+                    throw new TimeoutException("Expected condition failed: waiting for " + condition
+                            + " on " + key + " (tried for " + timeoutMillis + " ms with backoff polling)", lastException);
+                }
+
+                try {
+                    Thread.sleep(Math.min(pollMillis, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TimeoutException("Interrupted while waiting for " + condition, e);
+                }
+                pollMillis = Math.min(MAX_POLL_MILLIS, (long) (pollMillis * POLL_FACTOR));
+            }
+        }
+    }
+
+    /**
+     * Time-to-satisfy history and counters for one locator.
+     */
+    private static class LocatorStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder nearTimeouts = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        // Ring buffer of recent successful wait durations in millis
+        private final long[] history = new long[HISTORY_SIZE];
+        private int historyCount;
+        private int historyNext;
+
+        void record(long nanos, long timeoutMillis, boolean satisfied) {
+            count.increment();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            if (!satisfied) {
+                timeouts.increment();
+                return;
+            }
+            if (millis >= timeoutMillis * NEAR_TIMEOUT_RATIO) {
+                nearTimeouts.increment();
+            }
+            synchronized (history) {
+                history[historyNext] = millis;
+                historyNext = (historyNext + 1) % HISTORY_SIZE;
+                historyCount = Math.min(historyCount + 1, HISTORY_SIZE);
+            }
+        }
+
+        long percentileMillis(double percentile) {
+            long[] sorted;
+            synchronized (history) {
+                if (historyCount == 0) {
+                    return 0;
+                }
+                sorted = Arrays.copyOf(history, historyCount);
+            }
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        }
+
+        long learnedTimeoutMillis(long configuredMillis) {
+            synchronized (history) {
+                if (historyCount < ADAPTIVE_MIN_SAMPLES) {
+                    return configuredMillis;
+                }
+            }
+            return Math.max(ADAPTIVE_MIN_MILLIS, (long) (percentileMillis(0.95) * ADAPTIVE_FACTOR));
+        }
+    }
+}
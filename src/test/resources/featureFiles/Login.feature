@@ -1,3 +1,5 @@
+# Tests the login form itself, so it never restores a cached session
+@noSessionCache
 Feature: Login Functionality
   As a user
   I want to be able to log in to the system